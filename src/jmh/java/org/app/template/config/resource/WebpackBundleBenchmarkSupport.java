@@ -0,0 +1,70 @@
+package org.app.template.config.resource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Creates webpack components with synthetic manifest, without Spring context and classpath scanning.
+ *
+ * @author i.segodin
+ */
+final class WebpackBundleBenchmarkSupport {
+
+    private WebpackBundleBenchmarkSupport() {
+    }
+
+    static String logicalPath(int idx) {
+        return "js/application/pages/page" + idx + "_page.js";
+    }
+
+    static String hash(int idx) {
+        return String.format("%020x", idx * 2654435761L);
+    }
+
+    /**
+     * @return manifest like the one produced by webpack-manifest-plugin
+     * */
+    static Map<String, String> createManifest(int size) {
+        Map<String, String> manifest = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            manifest.put(logicalPath(i), "js/application/pages/page" + i + "_page." + hash(i) + ".js");
+        }
+        return Collections.unmodifiableMap(manifest);
+    }
+
+    static WebpackBundleConfig createConfig(Map<String, String> manifest) {
+        WebpackBundleConfig bundleConfig = new WebpackBundleConfig();
+        ReflectionTestUtils.setField(bundleConfig, "javascriptManifest", manifest);
+        ReflectionTestUtils.setField(bundleConfig, "contextPath", "/app");
+        ReflectionTestUtils.setField(bundleConfig, "assetStreaming", true);
+        ReflectionTestUtils.setField(bundleConfig, "assetCompression", false);
+        ReflectionTestUtils.setField(bundleConfig, "assetZeroCopy", false);
+        return bundleConfig;
+    }
+
+    static WebpackBundleAssetIndex createIndex(WebpackBundleConfig bundleConfig, Map<String, String> manifest, byte[] content) {
+        Map<String, WebpackBundleAsset> assets = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, String> entry : manifest.entrySet()) {
+            WebpackBundleAsset asset = new WebpackBundleAsset(entry.getKey(), entry.getValue(), hash(i++), content.length, new ByteArrayResource(content));
+            assets.put(entry.getKey(), asset);
+            assets.put(entry.getValue(), asset);
+        }
+
+        WebpackBundleAssetIndex assetIndex = new WebpackBundleAssetIndex();
+        ReflectionTestUtils.setField(assetIndex, "bundleConfig", bundleConfig);
+        ReflectionTestUtils.setField(assetIndex, "negativeCacheSize", 1024);
+        ReflectionTestUtils.setField(assetIndex, "assets", Collections.unmodifiableMap(assets));
+        return assetIndex;
+    }
+
+    static WebpackBundleResourceResolver createResolver(WebpackBundleAssetIndex assetIndex) {
+        WebpackBundleResourceResolver resolver = new WebpackBundleResourceResolver();
+        ReflectionTestUtils.setField(resolver, "assetIndex", assetIndex);
+        return resolver;
+    }
+}
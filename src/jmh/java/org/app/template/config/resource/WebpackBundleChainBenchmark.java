@@ -0,0 +1,117 @@
+package org.app.template.config.resource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.app.template.metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link WebpackBundleEtagHeaderFilter} together with {@link WebpackBundleResourceResolver}, for full response, 304 and 404.
+ *
+ * @author i.segodin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WebpackBundleChainBenchmark {
+
+    @Param({"100", "2000"})
+    private int manifestSize;
+
+    @Param({"true", "false"})
+    private boolean assetStreaming;
+
+    private WebpackBundleEtagHeaderFilter filter;
+
+    private FilterChain chain;
+
+    private String logicalPath;
+
+    private String eTag;
+
+    @Setup
+    public void setup() throws ServletException {
+        Map<String, String> manifest = WebpackBundleBenchmarkSupport.createManifest(manifestSize);
+        WebpackBundleConfig bundleConfig = WebpackBundleBenchmarkSupport.createConfig(manifest);
+        ReflectionTestUtils.setField(bundleConfig, "assetStreaming", assetStreaming);
+        WebpackBundleAssetIndex assetIndex = WebpackBundleBenchmarkSupport.createIndex(bundleConfig, manifest, new byte[64 * 1024]);
+        WebpackBundleResourceResolver resolver = WebpackBundleBenchmarkSupport.createResolver(assetIndex);
+
+        filter = new WebpackBundleEtagHeaderFilter();
+        ReflectionTestUtils.setField(filter, "bundleConfig", bundleConfig);
+        ReflectionTestUtils.setField(filter, "assetIndex", assetIndex);
+        ReflectionTestUtils.setField(filter, "fileCache", new WebpackBundleFileCache());
+        ReflectionTestUtils.setField(filter, "filterTimer", new LatencyHistogram());
+        filter.init(new MockFilterConfig(new MockServletContext()));
+
+        List<Resource> locations = Collections.singletonList(new ClassPathResource("assets/"));
+        /**
+         * Stands for resource handler: resolves resource and writes its content
+         * */
+        chain = (request, response) -> {
+            HttpServletRequest httpRequest = (HttpServletRequest) request;
+            String path = httpRequest.getServletPath().substring("/assets/".length());
+            Resource resource = resolver.resolveResourceInternal(httpRequest, path, locations, null);
+            if (resource == null) {
+                ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            StreamUtils.copy(resource.getInputStream(), response.getOutputStream());
+        };
+
+        logicalPath = WebpackBundleBenchmarkSupport.logicalPath(manifestSize / 2);
+        eTag = assetIndex.find(logicalPath).getETag(null);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse fullResponse() throws Exception {
+        return doFilter(createRequest(logicalPath));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse notModified() throws Exception {
+        MockHttpServletRequest request = createRequest(logicalPath);
+        request.addHeader("If-None-Match", eTag);
+        return doFilter(request);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse notFound() throws Exception {
+        return doFilter(createRequest("js/missing.js"));
+    }
+
+    private MockHttpServletRequest createRequest(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/assets/" + path);
+        request.setContextPath("/app");
+        request.setServletPath("/assets/" + path);
+        return request;
+    }
+
+    private MockHttpServletResponse doFilter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,69 @@
+package org.app.template.config.resource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Path matching and manifest lookup of {@link WebpackBundleConfig}.
+ *
+ * @author i.segodin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WebpackBundleConfigBenchmark {
+
+    @Param({"100", "2000"})
+    private int manifestSize;
+
+    private WebpackBundleConfig bundleConfig;
+
+    private String logicalPath;
+
+    private String hashedPath;
+
+    @Setup
+    public void setup() {
+        Map<String, String> manifest = WebpackBundleBenchmarkSupport.createManifest(manifestSize);
+        bundleConfig = WebpackBundleBenchmarkSupport.createConfig(manifest);
+        logicalPath = WebpackBundleBenchmarkSupport.logicalPath(manifestSize / 2);
+        hashedPath = manifest.get(logicalPath);
+    }
+
+    @Benchmark
+    public String pathMatcherHashed() {
+        Matcher matcher = bundleConfig.getPathMatcher(hashedPath);
+        return bundleConfig.getGroupSafe(matcher, WebpackBundleConfig.HASH_GROUP);
+    }
+
+    @Benchmark
+    public String pathMatcherNoHash() {
+        Matcher matcher = bundleConfig.getPathMatcher("js/page-commons.js");
+        return bundleConfig.getGroupSafe(matcher, WebpackBundleConfig.HASH_GROUP);
+    }
+
+    @Benchmark
+    public String manifestLookupHit() {
+        return bundleConfig.getJavascriptManifest().get(logicalPath);
+    }
+
+    @Benchmark
+    public String manifestLookupMiss() {
+        return bundleConfig.getJavascriptManifest().get("js/unknown.js");
+    }
+
+    @Benchmark
+    public String getPath() {
+        return bundleConfig.getPath(logicalPath);
+    }
+}
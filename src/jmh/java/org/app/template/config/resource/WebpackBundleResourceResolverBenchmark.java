@@ -0,0 +1,66 @@
+package org.app.template.config.resource;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * {@link WebpackBundleResourceResolver} lookup of logical path, hashed path and missing path.
+ *
+ * @author i.segodin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WebpackBundleResourceResolverBenchmark {
+
+    @Param({"100", "2000"})
+    private int manifestSize;
+
+    private WebpackBundleResourceResolver resolver;
+
+    private List<Resource> locations;
+
+    private String logicalPath;
+
+    private String hashedPath;
+
+    @Setup
+    public void setup() {
+        Map<String, String> manifest = WebpackBundleBenchmarkSupport.createManifest(manifestSize);
+        WebpackBundleConfig bundleConfig = WebpackBundleBenchmarkSupport.createConfig(manifest);
+        WebpackBundleAssetIndex assetIndex = WebpackBundleBenchmarkSupport.createIndex(bundleConfig, manifest, new byte[16 * 1024]);
+        resolver = WebpackBundleBenchmarkSupport.createResolver(assetIndex);
+        locations = Collections.singletonList(new ClassPathResource("assets/"));
+        logicalPath = WebpackBundleBenchmarkSupport.logicalPath(manifestSize / 2);
+        hashedPath = manifest.get(logicalPath);
+    }
+
+    @Benchmark
+    public Resource resolveLogicalPath() {
+        return resolver.resolveResourceInternal(new MockHttpServletRequest("GET", "/assets/" + logicalPath), logicalPath, locations, null);
+    }
+
+    @Benchmark
+    public Resource resolveHashedPath() {
+        return resolver.resolveResourceInternal(new MockHttpServletRequest("GET", "/assets/" + hashedPath), hashedPath, locations, null);
+    }
+
+    @Benchmark
+    public Resource resolveMissingPath() {
+        return resolver.resolveResourceInternal(new MockHttpServletRequest("GET", "/assets/js/missing.js"), "js/missing.js", locations, null);
+    }
+}
@@ -1,5 +1,6 @@
 package org.app.template;
 
+import org.app.template.config.startup.StartupTimeline;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.PropertySource;
@@ -12,6 +13,8 @@ import org.springframework.context.annotation.PropertySource;
 public class Application {
 
 	public static void main(String[] args) {
-		SpringApplication.run(Application.class, args);
+		SpringApplication application = new SpringApplication(Application.class);
+		application.addListeners(new StartupTimeline());
+		application.run(args);
 	}
 }
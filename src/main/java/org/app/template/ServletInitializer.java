@@ -1,5 +1,6 @@
 package org.app.template;
 
+import org.app.template.config.startup.StartupTimeline;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.support.SpringBootServletInitializer;
 
@@ -7,7 +8,7 @@ public class ServletInitializer extends SpringBootServletInitializer {
 
 	@Override
 	protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
-		return application.sources(Application.class);
+		return application.sources(Application.class).listeners(new StartupTimeline());
 	}
 
 }
@@ -0,0 +1,48 @@
+package org.app.template.acl;
+
+import java.util.Collection;
+
+/**
+ * Permissions of application. Name is code in {@code permission} table, ordinal is bit in permission mask of a user,
+ * so there may be at most 64 permissions and order must not change.
+ *
+ * @author isegodin
+ */
+public enum Permission {
+
+    VIEW_USER_LIST,
+
+    IMPORT_USERS,
+
+    VIEW_METRICS;
+
+    private final long mask = 1L << ordinal();
+
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * @param mask permission mask
+     * @return true when mask has this permission
+     * */
+    public boolean isGranted(long mask) {
+        return (mask & this.mask) != 0;
+    }
+
+    /**
+     * @param codes permission codes, unknown codes are ignored
+     * @return permission mask
+     * */
+    public static long toMask(Collection<String> codes) {
+        long mask = 0;
+        for (String code : codes) {
+            for (Permission permission : values()) {
+                if (permission.name().equals(code)) {
+                    mask |= permission.mask;
+                }
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,31 @@
+package org.app.template.acl;
+
+import org.springframework.security.access.ConfigAttribute;
+
+/**
+ * Security attribute of method annotated with {@link RequiresPermission}.
+ *
+ * @author isegodin
+ */
+public class PermissionAttribute implements ConfigAttribute {
+
+    private final Permission permission;
+
+    public PermissionAttribute(Permission permission) {
+        this.permission = permission;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    @Override
+    public String getAttribute() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return permission.name();
+    }
+}
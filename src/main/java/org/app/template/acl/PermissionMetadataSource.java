@@ -0,0 +1,37 @@
+package org.app.template.acl;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.method.AbstractFallbackMethodSecurityMetadataSource;
+
+/**
+ * Reads {@link RequiresPermission} of methods and classes. Attributes are resolved once per method,
+ * Spring Security caches them.
+ *
+ * @author isegodin
+ */
+public class PermissionMetadataSource extends AbstractFallbackMethodSecurityMetadataSource {
+
+    @Override
+    protected Collection<ConfigAttribute> findAttributes(Method method, Class<?> targetClass) {
+        return toAttributes(AnnotationUtils.findAnnotation(method, RequiresPermission.class));
+    }
+
+    @Override
+    protected Collection<ConfigAttribute> findAttributes(Class<?> clazz) {
+        return toAttributes(AnnotationUtils.findAnnotation(clazz, RequiresPermission.class));
+    }
+
+    @Override
+    public Collection<ConfigAttribute> getAllConfigAttributes() {
+        return null;
+    }
+
+    private Collection<ConfigAttribute> toAttributes(RequiresPermission annotation) {
+        return annotation != null ? Collections.singletonList(new PermissionAttribute(annotation.value())) : null;
+    }
+}
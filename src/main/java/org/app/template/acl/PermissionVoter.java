@@ -0,0 +1,39 @@
+package org.app.template.acl;
+
+import java.util.Collection;
+
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Grants access when principal has every {@link PermissionAttribute} of secured method.
+ *
+ * @author isegodin
+ */
+public class PermissionVoter implements AccessDecisionVoter<Object> {
+
+    @Override
+    public boolean supports(ConfigAttribute attribute) {
+        return attribute instanceof PermissionAttribute;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public int vote(Authentication authentication, Object object, Collection<ConfigAttribute> attributes) {
+        int result = ACCESS_ABSTAIN;
+        for (ConfigAttribute attribute : attributes) {
+            if (attribute instanceof PermissionAttribute) {
+                if (!UserAcl.hasPermission(authentication, ((PermissionAttribute) attribute).getPermission())) {
+                    return ACCESS_DENIED;
+                }
+                result = ACCESS_GRANTED;
+            }
+        }
+        return result;
+    }
+}
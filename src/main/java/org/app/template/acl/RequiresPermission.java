@@ -0,0 +1,23 @@
+package org.app.template.acl;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Method security without SpEL: access is granted when principal has the permission,
+ * which is a bit test on permission mask of {@link org.app.template.data.domain.User}.
+ *
+ * @author isegodin
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface RequiresPermission {
+
+    Permission value();
+}
@@ -1,14 +1,40 @@
 package org.app.template.acl;
 
+import org.app.template.data.domain.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 /**
+ * Checks of current user permissions, each is a bit test on permission mask of principal.
+ * Controllers use {@link RequiresPermission} with the same permissions.
+ *
  * @author isegodin
  */
 @Component
 public class UserAcl {
 
     public boolean isCanViewUserList() {
-        return true;
+        return hasPermission(Permission.VIEW_USER_LIST);
+    }
+
+    public boolean isCanImportUsers() {
+        return hasPermission(Permission.IMPORT_USERS);
+    }
+
+    public boolean isCanViewMetrics() {
+        return hasPermission(Permission.VIEW_METRICS);
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return hasPermission(SecurityContextHolder.getContext().getAuthentication(), permission);
+    }
+
+    /**
+     * @return true when authentication principal is {@link User} with given permission
+     * */
+    public static boolean hasPermission(Authentication authentication, Permission permission) {
+        return authentication != null && authentication.getPrincipal() instanceof User
+                && ((User) authentication.getPrincipal()).hasPermission(permission);
     }
 }
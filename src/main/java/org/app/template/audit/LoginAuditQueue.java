@@ -0,0 +1,90 @@
+package org.app.template.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer (Vyukov's bounded MPMC queue). Every slot has a sequence number,
+ * which tells whether slot is free for producer or filled for consumer, so neither side takes a lock
+ * and full queue is detected without waiting.
+ *
+ * @author i.segodin
+ */
+public class LoginAuditQueue<T> {
+
+    private final int mask;
+
+    private final AtomicReferenceArray<T> slots;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity requested capacity, rounded up to power of two
+     * */
+    public LoginAuditQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false when queue is full
+     * */
+    public boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return oldest element or null when queue is empty
+     * */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position + 1) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T element = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.lazySet(index, position + mask + 1);
+                    return element;
+                }
+            } else if (sequence < position + 1) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return approximate number of elements
+     * */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), mask + 1));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
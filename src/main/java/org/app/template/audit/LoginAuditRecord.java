@@ -0,0 +1,63 @@
+package org.app.template.audit;
+
+/**
+ * Single authentication attempt.
+ *
+ * @author i.segodin
+ */
+public final class LoginAuditRecord {
+
+    private final long created;
+
+    private final String email;
+
+    private final Long userId;
+
+    private final String ip;
+
+    private final boolean success;
+
+    private final String failure;
+
+    public LoginAuditRecord(long created, String email, Long userId, String ip, boolean success, String failure) {
+        this.created = created;
+        this.email = email;
+        this.userId = userId;
+        this.ip = ip;
+        this.success = success;
+        this.failure = failure;
+    }
+
+    /**
+     * @return time of attempt in milliseconds
+     * */
+    public long getCreated() {
+        return created;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * @return id of authenticated user, null for failed attempt
+     * */
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return simple name of authentication exception, null for successful attempt
+     * */
+    public String getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,203 @@
+package org.app.template.audit;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.app.template.data.domain.User;
+import org.app.template.metrics.LatencyHistogram;
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.event.AbstractAuthenticationEvent;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records authentication attempts without touching database on login path: Spring Security events are put
+ * into {@link LoginAuditQueue}, background thread writes them to {@code login_audit} with JDBC batch inserts.
+ * When queue is full, {@code spring.config.loginAudit.overflowPolicy} decides which record is dropped.
+ * Queue is drained on shutdown.
+ *
+ * @author i.segodin
+ */
+@Component
+public class LoginAuditService {
+
+    private static final Log logger = LogFactory.getLog(LoginAuditService.class);
+
+    private static final String INSERT_SQL = "insert into login_audit (created, email, user_id, ip, success, failure) values (?, ?, ?, ?, ?, ?)";
+
+    public enum OverflowPolicy {
+        /**
+         * New record is dropped
+         * */
+        DROP_NEWEST,
+        /**
+         * Oldest queued record is dropped to make room for new one
+         * */
+        DROP_OLDEST
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final LatencyHistogram flushTimer;
+
+    @Value("${spring.config.loginAudit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.config.loginAudit.queueSize:8192}")
+    private int queueSize;
+
+    @Value("${spring.config.loginAudit.batchSize:200}")
+    private int batchSize;
+
+    @Value("${spring.config.loginAudit.flushInterval:500}")
+    private long flushInterval;
+
+    @Value("${spring.config.loginAudit.shutdownTimeout:5000}")
+    private long shutdownTimeout;
+
+    @Value("${spring.config.loginAudit.overflowPolicy:DROP_NEWEST}")
+    private OverflowPolicy overflowPolicy;
+
+    private LoginAuditQueue<LoginAuditRecord> queue;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Autowired
+    public LoginAuditService(DataSource dataSource, MetricsRegistry metricsRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.flushTimer = metricsRegistry.timer("audit.flush");
+        metricsRegistry.gauge("login_audit_queued", this::getQueued);
+        metricsRegistry.counter("login_audit_written_total", this::getWritten);
+        metricsRegistry.counter("login_audit_dropped_total", this::getDropped);
+    }
+
+    @PostConstruct
+    private void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LoginAuditQueue<>(queueSize);
+        running = true;
+        writer = new Thread(this::writeLoop, "login-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    private void destroy() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(shutdownTimeout);
+        if (writer.isAlive()) {
+            logger.warn("Login audit is not drained in " + shutdownTimeout + " ms, " + queue.size() + " records are lost");
+        }
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        Authentication authentication = event.getAuthentication();
+        Object principal = authentication.getPrincipal();
+        Long userId = principal instanceof User ? ((User) principal).getId() : null;
+        enqueue(event, authentication.getName(), userId, true, null);
+    }
+
+    @EventListener
+    public void onAuthenticationFailure(AbstractAuthenticationFailureEvent event) {
+        enqueue(event, event.getAuthentication().getName(), null, false, event.getException().getClass().getSimpleName());
+    }
+
+    private void enqueue(AbstractAuthenticationEvent event, String email, Long userId, boolean success, String failure) {
+        if (queue == null || email == null) {
+            return;
+        }
+        Object details = event.getAuthentication().getDetails();
+        String ip = details instanceof WebAuthenticationDetails ? ((WebAuthenticationDetails) details).getRemoteAddress() : null;
+        LoginAuditRecord record = new LoginAuditRecord(event.getTimestamp(), email, userId, ip, success, failure);
+
+        while (!queue.offer(record)) {
+            dropped.increment();
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST || queue.poll() == null) {
+                return;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<LoginAuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || queue.size() > 0) {
+            LoginAuditRecord record;
+            while (batch.size() < batchSize && (record = queue.poll()) != null) {
+                batch.add(record);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            if (running && queue.size() < batchSize) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushInterval));
+            }
+        }
+    }
+
+    private void write(List<LoginAuditRecord> batch) {
+        long start = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (LoginAuditRecord record : batch) {
+            rows.add(new Object[]{new Timestamp(record.getCreated()), record.getEmail(), record.getUserId(), record.getIp(),
+                    record.isSuccess(), record.getFailure()});
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            written.add(batch.size());
+        } catch (DataAccessException e) {
+            dropped.add(batch.size());
+            logger.warn("Failure writing " + batch.size() + " login audit records", e);
+        } finally {
+            flushTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * @return number of records in queue
+     * */
+    public int getQueued() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * @return number of records lost due to queue overflow or write failure
+     * */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,63 @@
+package org.app.template.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import javax.annotation.PostConstruct;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are Caffeine caches, configured with spring.cache.caffeine.spec (size bound, TTL and statistics).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @PostConstruct
+    private void init() {
+        metricsRegistry.counters("cache_hits_total", "cache", () -> collectStats(CacheStats::hitCount));
+        metricsRegistry.counters("cache_misses_total", "cache", () -> collectStats(CacheStats::missCount));
+        metricsRegistry.counters("cache_evictions_total", "cache", () -> collectStats(CacheStats::evictionCount));
+    }
+
+    /**
+     * @param cacheName name of a cache
+     * @return hit, miss and eviction counters or null when there is no such cache
+     * */
+    public CacheStats getCacheStats(String cacheName) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof CaffeineCache) {
+            Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+            return nativeCache.stats();
+        }
+        return null;
+    }
+
+    /**
+     * @return value of statistics by cache name, caches without statistics are skipped
+     * */
+    private Map<String, Long> collectStats(ToLongFunction<CacheStats> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            CacheStats stats = getCacheStats(cacheName);
+            if (stats != null) {
+                values.put(cacheName, value.applyAsLong(stats));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,40 @@
+package org.app.template.config;
+
+import javax.sql.DataSource;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.app.template.config.startup.ChecksumSkippingLiquibase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Liquibase configured from usual {@code liquibase.*} properties. With {@code spring.config.fastStartup}
+ * migration is skipped, when changelog is unchanged since last start.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "liquibase", name = "enabled", matchIfMissing = true)
+@EnableConfigurationProperties(LiquibaseProperties.class)
+public class LiquibaseConfig {
+
+    @Value("${spring.config.fastStartup:false}")
+    private boolean fastStartup;
+
+    @Bean
+    public SpringLiquibase liquibase(DataSource dataSource, LiquibaseProperties properties) {
+        SpringLiquibase liquibase = new ChecksumSkippingLiquibase(fastStartup);
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(properties.getChangeLog());
+        liquibase.setContexts(properties.getContexts());
+        liquibase.setDefaultSchema(properties.getDefaultSchema());
+        liquibase.setDropFirst(properties.isDropFirst());
+        liquibase.setShouldRun(properties.isEnabled());
+        liquibase.setLabels(properties.getLabels());
+        liquibase.setChangeLogParameters(properties.getParameters());
+        liquibase.setRollbackFile(properties.getRollbackFile());
+        return liquibase;
+    }
+}
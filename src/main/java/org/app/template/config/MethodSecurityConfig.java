@@ -0,0 +1,38 @@
+package org.app.template.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.app.template.acl.PermissionMetadataSource;
+import org.app.template.acl.PermissionVoter;
+import org.app.template.config.security.TimedAccessDecisionManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.method.MethodSecurityMetadataSource;
+import org.springframework.security.access.vote.AbstractAccessDecisionManager;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.config.annotation.method.configuration.GlobalMethodSecurityConfiguration;
+
+/**
+ * Method security with {@code @PreAuthorize} and {@link org.app.template.acl.RequiresPermission}.
+ * The latter is checked by {@link PermissionVoter} with bit test, without expression evaluation.
+ */
+@Configuration
+@EnableGlobalMethodSecurity(prePostEnabled = true)
+public class MethodSecurityConfig extends GlobalMethodSecurityConfiguration {
+
+    @Override
+    protected MethodSecurityMetadataSource customMethodSecurityMetadataSource() {
+        return new PermissionMetadataSource();
+    }
+
+    @Override
+    protected AccessDecisionManager accessDecisionManager() {
+        List<AccessDecisionVoter<?>> voters = new ArrayList<>();
+        voters.add(new PermissionVoter());
+        voters.addAll(((AbstractAccessDecisionManager) super.accessDecisionManager()).getDecisionVoters());
+        return new TimedAccessDecisionManager(new AffirmativeBased(voters));
+    }
+}
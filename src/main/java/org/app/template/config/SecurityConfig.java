@@ -1,34 +1,192 @@
 package org.app.template.config;
 
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.app.template.config.security.CachingDaoAuthenticationProvider;
+import org.app.template.config.security.LoginAdmissionFilter;
+import org.app.template.config.security.SessionTokenCodec;
+import org.app.template.config.security.SignedCookieSecurityContextRepository;
+import org.app.template.config.security.TokenBucketLimiter;
 import org.app.template.data.service.UserService;
+import org.app.template.metrics.MetricsRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.StringUtils;
 
 @Configuration
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true)
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
+    private static final Log logger = LogFactory.getLog(SecurityConfig.class);
+
+    private static final String SESSION_COOKIE = "JSESSIONID";
+
+    private static final String LOGIN_PROCESSING_URL = "/process-login";
+
+    private static final String USERNAME_PARAMETER = "email";
+
     private final UserService userService;
 
+    private final MetricsRegistry metricsRegistry;
+
+    @Value("${spring.config.credentialsCacheTTL:300}")
+    private long credentialsCacheTTL;
+
+    @Value("${spring.config.credentialsCacheSize:10000}")
+    private long credentialsCacheSize;
+
+    @Value("${spring.config.loginRate.ipPerMinute:30}")
+    private int loginRateIpPerMinute;
+
+    @Value("${spring.config.loginRate.ipBurst:10}")
+    private int loginRateIpBurst;
+
+    @Value("${spring.config.loginRate.accountPerMinute:10}")
+    private int loginRateAccountPerMinute;
+
+    @Value("${spring.config.loginRate.accountBurst:5}")
+    private int loginRateAccountBurst;
+
+    @Value("${spring.config.loginRate.maxBuckets:100000}")
+    private int loginRateMaxBuckets;
+
+    @Value("${spring.config.passwordVerification.threads:0}")
+    private int passwordVerificationThreads;
+
+    @Value("${spring.config.passwordVerification.queueSize:64}")
+    private int passwordVerificationQueueSize;
+
+    @Value("${spring.config.statelessSession.enabled:false}")
+    private boolean statelessSession;
+
+    @Value("${spring.config.statelessSession.cookie:APP_SESSION}")
+    private String statelessSessionCookie;
+
+    @Value("${spring.config.statelessSession.ttl:1800}")
+    private long statelessSessionTTL;
+
+    @Value("${spring.config.statelessSession.keys:}")
+    private String statelessSessionKeys;
+
     @Autowired
-    public SecurityConfig(UserService userService) {
+    public SecurityConfig(UserService userService, MetricsRegistry metricsRegistry) {
         this.userService = userService;
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Skips BCrypt for credentials, which were verified during last {@code spring.config.credentialsCacheTTL} seconds
+     * */
+    @Bean
+    public CachingDaoAuthenticationProvider authenticationProvider() {
+        CachingDaoAuthenticationProvider provider = new CachingDaoAuthenticationProvider(credentialsCacheTTL, credentialsCacheSize);
+        provider.setUserDetailsService(userService);
+        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordVerificationTimer(metricsRegistry.timer("security.passwordVerification"));
+        provider.setPasswordVerificationExecutor(passwordVerificationExecutor());
+        metricsRegistry.counter("cache_hits_total", "cache", "verifiedCredentials", provider::getCacheHits);
+        metricsRegistry.counter("password_verifications_total", provider::getPasswordVerifications);
+        metricsRegistry.counter("login_rejected_total", "reason", "verificationSaturated", provider::getRejectedVerifications);
+        return provider;
+    }
+
+    /**
+     * BCrypt runs here instead of request threads, so login burst can't take all cores. Full queue rejects at once.
+     * Thread count defaults to number of processors.
+     * */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor passwordVerificationExecutor() {
+        int threads = passwordVerificationThreads > 0 ? passwordVerificationThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(passwordVerificationQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-verification-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Per-IP and per-account limits of authentication attempts, see {@code spring.config.loginRate.*}
+     * */
+    @Bean
+    public LoginAdmissionFilter loginAdmissionFilter() {
+        int maxBuckets = loginRateMaxBuckets / 2;
+        LoginAdmissionFilter filter = new LoginAdmissionFilter(LOGIN_PROCESSING_URL, USERNAME_PARAMETER,
+                new TokenBucketLimiter(loginRateIpPerMinute, loginRateIpBurst, maxBuckets),
+                new TokenBucketLimiter(loginRateAccountPerMinute, loginRateAccountBurst, maxBuckets),
+                authenticationProvider());
+        metricsRegistry.counter("login_rejected_total", "reason", "ip", filter::getRejectedByIp);
+        metricsRegistry.counter("login_rejected_total", "reason", "account", filter::getRejectedByAccount);
+        metricsRegistry.gauge("login_rate_buckets", filter::getBuckets);
+        return filter;
+    }
+
+    /**
+     * Admission filter is part of security filter chain only
+     * */
+    @Bean
+    public FilterRegistrationBean loginAdmissionFilterRegistration() {
+        FilterRegistrationBean registration = new FilterRegistrationBean(loginAdmissionFilter());
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
+    }
+
+    /**
+     * Security context in HMAC-signed cookie instead of HTTP session, see {@code spring.config.statelessSession.*}.
+     * Keys are {@code keyId:base64Secret}, comma separated, first one signs new tokens.
+     * */
+    private SignedCookieSecurityContextRepository createSignedCookieRepository() {
+        Map<String, byte[]> keys;
+        if (StringUtils.hasText(statelessSessionKeys)) {
+            keys = SessionTokenCodec.parseKeys(statelessSessionKeys);
+        } else {
+            logger.warn("spring.config.statelessSession.keys is not set, random key is used, sessions are valid on this node only");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            keys = Collections.singletonMap("local", secret);
+        }
+        return new SignedCookieSecurityContextRepository(new SessionTokenCodec(keys), userService, statelessSessionCookie, statelessSessionTTL);
     }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(userService);
-        provider.setPasswordEncoder(new BCryptPasswordEncoder());
+        if (statelessSession) {
+            http
+                    .securityContext()
+                        .securityContextRepository(createSignedCookieRepository())
+                        .and()
+                    .sessionManagement()
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+        }
+
         http
-                .authenticationProvider(provider)
+                .authenticationProvider(authenticationProvider())
+                .addFilterBefore(loginAdmissionFilter(), UsernamePasswordAuthenticationFilter.class)
                 .authorizeRequests()
                     .antMatchers("/login").anonymous()
                     .antMatchers("/static/**").permitAll()
@@ -37,10 +195,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                     .and()
                 .formLogin()
                     .loginPage("/login")
-                    .loginProcessingUrl("/process-login")
+                    .loginProcessingUrl(LOGIN_PROCESSING_URL)
                     .failureUrl("/login?error")
                     .passwordParameter("password")
-                    .usernameParameter("email")
+                    .usernameParameter(USERNAME_PARAMETER)
                     .defaultSuccessUrl("/")
                     .and()
                 .csrf()
@@ -49,7 +207,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                     .and()
                 .logout()
                     .logoutUrl("/logout")
-                    .deleteCookies("JSESSIONID")
+                    .deleteCookies(statelessSession ? statelessSessionCookie : SESSION_COOKIE)
                     .invalidateHttpSession(true)
                     .and()
                 .exceptionHandling()
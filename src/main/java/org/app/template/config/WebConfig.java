@@ -2,14 +2,23 @@ package org.app.template.config;
 
 import javax.servlet.Filter;
 
+import org.app.template.config.lane.ExecutionLaneFilter;
+import org.app.template.config.resource.WebpackBundleConfig;
 import org.app.template.config.resource.WebpackBundleEtagHeaderFilter;
 import org.app.template.config.resource.WebpackBundleResourceResolver;
+import org.app.template.config.resource.WebpackPreloadInterceptor;
+import org.app.template.metrics.RequestMetricsFilter;
+import org.app.template.metrics.timing.RequestTimelineFilter;
+import org.app.template.metrics.timing.RequestTimelineInterceptor;
+import org.app.template.metrics.timing.ServerTimingFilter;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.format.FormatterRegistry;
-import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -19,20 +28,66 @@ public class WebConfig extends WebMvcConfigurerAdapter {
 	@Autowired
 	private WebpackBundleResourceResolver webpackBundleResourceResolver;
 
+	@Autowired
+	private WebpackBundleConfig webpackBundleConfig;
+
+	@Autowired
+	private WebpackPreloadInterceptor webpackPreloadInterceptor;
+
+	@Autowired
+	private RequestTimelineInterceptor requestTimelineInterceptor;
+
 	@Bean
 	public FilterRegistrationBean registerWebpackBundleEtagHeaderFilter() {
 		return getFilterRegistrationBean(new WebpackBundleEtagHeaderFilter(), "/assets/*", "WebpackBundleEtagHeaderFilter");
 	}
 
+	@Bean
+	public FilterRegistrationBean registerRequestMetricsFilter() {
+		FilterRegistrationBean registration = getFilterRegistrationBean(new RequestMetricsFilter(), "/*", "RequestMetricsFilter");
+		// before security filter chain, so its time is included
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	@Bean
+	public FilterRegistrationBean registerRequestTimelineFilter() {
+		FilterRegistrationBean registration = getFilterRegistrationBean(new RequestTimelineFilter(), "/*", "RequestTimelineFilter");
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+		return registration;
+	}
+
+	@Bean
+	public FilterRegistrationBean registerServerTimingFilter() {
+		FilterRegistrationBean registration = getFilterRegistrationBean(new ServerTimingFilter(), "/*", "ServerTimingFilter");
+		// after security filter chain, so user is known before response is wrapped
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+		return registration;
+	}
+
+	@Bean
+	public FilterRegistrationBean registerExecutionLaneFilter() {
+		FilterRegistrationBean registration = getFilterRegistrationBean(new ExecutionLaneFilter(), "/*", "ExecutionLaneFilter");
+		// before security filter chain, so authentication runs in its lane
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+		return registration;
+	}
+
 	@Override
 	public void addResourceHandlers(ResourceHandlerRegistry registry) {
 		registry.addResourceHandler("/assets/**")
 				.addResourceLocations("classpath:assets/")
-				.setCacheControl(CacheControl.empty().mustRevalidate())
+				.setCacheControl(webpackBundleConfig.getCacheControl())
 				.resourceChain(false)
 				.addResolver(webpackBundleResourceResolver);
 	}
 
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(requestTimelineInterceptor);
+		registry.addInterceptor(webpackPreloadInterceptor);
+	}
+
 	private FilterRegistrationBean getFilterRegistrationBean(Filter filter, String urlPattern, String name) {
 		FilterRegistrationBean registration = new FilterRegistrationBean();
 		registration.setFilter(filter);
@@ -0,0 +1,58 @@
+package org.app.template.config.datasource;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Read/write splitting, enabled when {@code spring.datasource.replica.jdbc-url} is set. Primary pool is configured
+ * with usual {@code spring.datasource.*} properties, replica pool with {@code spring.datasource.replica.*}
+ * (Hikari property names). {@code @Transactional(readOnly = true)} calls go to replica, others to primary.
+ * Without replica url, Spring Boot creates single datasource as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "spring.datasource.replica", name = "jdbc-url")
+public class ReplicaDataSourceConfig {
+
+    @Value("${spring.config.replica.lagQuery:}")
+    private String lagQuery;
+
+    @Value("${spring.config.replica.maxLagSeconds:10}")
+    private long maxLagSeconds;
+
+    @Value("${spring.config.replica.checkInterval:5000}")
+    private long checkInterval;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return (HikariDataSource) properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                      @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, lagQuery, maxLagSeconds, checkInterval);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
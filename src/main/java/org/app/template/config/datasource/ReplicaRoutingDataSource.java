@@ -0,0 +1,143 @@
+package org.app.template.config.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Routes connections of read-only transactions to replica, everything else to primary.
+ * Replica is checked periodically (connection validity and optional lag query), when it is down or lagging
+ * connections go to primary until next successful check.
+ * <p>Must be wrapped with {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * because transaction manager gets connection before read-only flag of transaction is set.
+ *
+ * @author i.segodin
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    private final String lagQuery;
+
+    private final long maxLagSeconds;
+
+    private final ScheduledExecutorService replicaChecker;
+
+    private volatile boolean replicaAvailable = true;
+
+    /**
+     * @param lagQuery query, which returns replica lag in seconds in first column, or null to check only connection
+     * */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, long maxLagSeconds, long checkIntervalMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        targetDataSources.put(REPLICA, replica);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+
+        replicaChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replicaChecker.scheduleWithFixedDelay(this::checkReplica, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaAvailable && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                markReplicaUnavailable("connection failed", e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                markReplicaUnavailable("connection failed", e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Override
+    public void destroy() {
+        replicaChecker.shutdownNow();
+    }
+
+    void checkReplica() {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                markReplicaUnavailable("connection is not valid", null);
+                return;
+            }
+            if (StringUtils.hasText(lagQuery)) {
+                try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    long lag = resultSet.next() ? resultSet.getLong(1) : 0;
+                    if (lag > maxLagSeconds) {
+                        markReplicaUnavailable("lag is " + lag + " seconds", null);
+                        return;
+                    }
+                }
+            }
+            if (!replicaAvailable) {
+                logger.info("Replica is available, routing read-only transactions to replica");
+                replicaAvailable = true;
+            }
+        } catch (SQLException | RuntimeException e) {
+            markReplicaUnavailable("check failed", e);
+        }
+    }
+
+    private void markReplicaUnavailable(String reason, Exception e) {
+        if (replicaAvailable) {
+            logger.warn("Replica " + reason + ", routing read-only transactions to primary", e);
+            replicaAvailable = false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.app.template.config.lane;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.app.template.metrics.LatencyHistogram;
+
+/**
+ * Bulkhead for one kind of requests: at most {@code maxConcurrent} requests run, at most {@code maxQueue} wait
+ * up to {@code queueTimeout} for a permit, others are rejected at once.
+ *
+ * @author i.segodin
+ */
+public class ExecutionLane {
+
+    private final String name;
+
+    private final List<String> patterns;
+
+    private final int maxConcurrent;
+
+    private final int maxQueue;
+
+    private final long queueTimeout;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LatencyHistogram queueWait;
+
+    /**
+     * @param queueTimeout milliseconds
+     * */
+    public ExecutionLane(String name, List<String> patterns, int maxConcurrent, int maxQueue, long queueTimeout, LatencyHistogram queueWait) {
+        this.name = name;
+        this.patterns = patterns;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+        this.permits = new Semaphore(maxConcurrent);
+        this.queueWait = queueWait;
+    }
+
+    /**
+     * @return true when request may run, then {@link #release()} must be called
+     * */
+    public boolean acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            admitted.increment();
+            return true;
+        }
+
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(queueTimeout, TimeUnit.MILLISECONDS)) {
+                admitted.increment();
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+            queueWait.recordSince(start);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return ant path patterns of requests, relative to context path
+     * */
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+}
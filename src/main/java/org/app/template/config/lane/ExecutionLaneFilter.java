@@ -0,0 +1,114 @@
+package org.app.template.config.lane;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Runs request within its {@link ExecutionLane}, rejected request gets 503 without body.
+ * Permit of async request is released when async processing completes.
+ *
+ * @author i.segodin
+ */
+public class ExecutionLaneFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private ExecutionLanes executionLanes;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        if (executionLanes == null) {
+            executionLanes = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(ExecutionLanes.class);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ExecutionLane lane = executionLanes.select(urlPathHelper.getPathWithinApplication(request));
+        if (lane == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = lane.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LaneReleasingListener(lane));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                lane.release();
+            }
+        }
+    }
+
+    /**
+     * Async request holds permit until it completes, so async writes count against the limit of their lane
+     * */
+    private static class LaneReleasingListener implements AsyncListener {
+
+        private final ExecutionLane lane;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private LaneReleasingListener(ExecutionLane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are removed when async is started again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                lane.release();
+            }
+        }
+    }
+}
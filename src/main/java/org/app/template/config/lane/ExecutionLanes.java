@@ -0,0 +1,113 @@
+package org.app.template.config.lane;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.PostConstruct;
+
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * Execution lanes of requests, in order of matching: webpack assets, authentication endpoints and pages.
+ * Lane is selected by path only, so HTTP Basic requests to pages stay in pages lane and can't take permits of {@code /login};
+ * BCrypt of all logins is bounded by password verification executor.
+ * All lanes share Tomcat worker pool, so limits plus queues of all lanes should stay below {@code server.tomcat.max-threads}
+ * (200 by default), then saturated lane leaves threads for others.
+ *
+ * @author i.segodin
+ */
+@Component
+public class ExecutionLanes {
+
+    public static final String LANE_ASSETS = "assets";
+
+    public static final String LANE_AUTH = "auth";
+
+    public static final String LANE_PAGES = "pages";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Value("${spring.config.lanes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.config.lanes.assets.maxConcurrent:40}")
+    private int assetsMaxConcurrent;
+
+    @Value("${spring.config.lanes.assets.maxQueue:20}")
+    private int assetsMaxQueue;
+
+    @Value("${spring.config.lanes.assets.queueTimeout:100}")
+    private long assetsQueueTimeout;
+
+    @Value("${spring.config.lanes.auth.maxConcurrent:16}")
+    private int authMaxConcurrent;
+
+    @Value("${spring.config.lanes.auth.maxQueue:8}")
+    private int authMaxQueue;
+
+    @Value("${spring.config.lanes.auth.queueTimeout:500}")
+    private long authQueueTimeout;
+
+    @Value("${spring.config.lanes.pages.maxConcurrent:80}")
+    private int pagesMaxConcurrent;
+
+    @Value("${spring.config.lanes.pages.maxQueue:20}")
+    private int pagesMaxQueue;
+
+    @Value("${spring.config.lanes.pages.queueTimeout:2000}")
+    private long pagesQueueTimeout;
+
+    private List<ExecutionLane> lanes = Collections.emptyList();
+
+    @PostConstruct
+    private void init() {
+        if (!enabled) {
+            return;
+        }
+        List<ExecutionLane> lanes = new ArrayList<>(3);
+        lanes.add(createLane(LANE_ASSETS, Arrays.asList("/assets/**", "/static/**"), assetsMaxConcurrent, assetsMaxQueue, assetsQueueTimeout));
+        lanes.add(createLane(LANE_AUTH, Arrays.asList("/login", "/process-login", "/logout"), authMaxConcurrent, authMaxQueue, authQueueTimeout));
+        lanes.add(createLane(LANE_PAGES, Collections.singletonList("/**"), pagesMaxConcurrent, pagesMaxQueue, pagesQueueTimeout));
+        this.lanes = Collections.unmodifiableList(lanes);
+
+        for (ExecutionLane lane : lanes) {
+            metricsRegistry.gauge("lane_active", "lane", lane.getName(), lane::getActive);
+            metricsRegistry.gauge("lane_max_concurrent", "lane", lane.getName(), lane::getMaxConcurrent);
+            metricsRegistry.gauge("lane_queued", "lane", lane.getName(), lane::getQueued);
+            metricsRegistry.gauge("lane_max_queue", "lane", lane.getName(), lane::getMaxQueue);
+            metricsRegistry.counter("lane_admitted_total", "lane", lane.getName(), lane::getAdmitted);
+            metricsRegistry.counter("lane_rejected_total", "lane", lane.getName(), lane::getRejected);
+        }
+    }
+
+    /**
+     * @param path request path relative to context path
+     * @return first lane, which pattern matches path, or null
+     * */
+    public ExecutionLane select(String path) {
+        for (ExecutionLane lane : lanes) {
+            for (String pattern : lane.getPatterns()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return lane;
+                }
+            }
+        }
+        return null;
+    }
+
+    public List<ExecutionLane> getLanes() {
+        return lanes;
+    }
+
+    private ExecutionLane createLane(String name, List<String> patterns, int maxConcurrent, int maxQueue, long queueTimeout) {
+        return new ExecutionLane(name, patterns, maxConcurrent, maxQueue, queueTimeout, metricsRegistry.timer("lane." + name + ".queueWait"));
+    }
+}
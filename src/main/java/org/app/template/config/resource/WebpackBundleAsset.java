@@ -0,0 +1,91 @@
+package org.app.template.config.resource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Description of a single webpack resource, found on classpath. Everything except encoded variants is immutable,
+ * variants may be added lazily on first request.
+ *
+ * @author i.segodin
+ */
+public final class WebpackBundleAsset {
+
+    private final String logicalPath;
+
+    private final String path;
+
+    private final String hash;
+
+    private final long size;
+
+    private final Resource resource;
+
+    /**
+     * Key is content encoding (gzip, br). Value is either encoded resource or original resource,
+     * when encoding doesn't make resource smaller.
+     * */
+    private final Map<String, Resource> encodedResources = new ConcurrentHashMap<>();
+
+    public WebpackBundleAsset(String logicalPath, String path, String hash, long size, Resource resource) {
+        this.logicalPath = logicalPath;
+        this.path = path;
+        this.hash = hash;
+        this.size = size;
+        this.resource = resource;
+    }
+
+    /**
+     * @return path relative to assets folder, without hash
+     * */
+    public String getLogicalPath() {
+        return logicalPath;
+    }
+
+    /**
+     * @return real path relative to assets folder, with hash if resource has it
+     * */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return hash from resource name or null
+     * */
+    public String getHash() {
+        return hash;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * @param encoding content encoding or null
+     * @return ETag for given encoding or null if resource has no hash
+     * */
+    public String getETag(String encoding) {
+        if (hash == null || encoding == null) {
+            return hash;
+        }
+        return hash + "-" + encoding;
+    }
+
+    /**
+     * @param encoding content encoding
+     * @return encoded resource, original resource when encoding is not worth it, or null when not known yet
+     * */
+    Resource getEncodedResource(String encoding) {
+        return encodedResources.get(encoding);
+    }
+
+    Map<String, Resource> getEncodedResources() {
+        return encodedResources;
+    }
+}
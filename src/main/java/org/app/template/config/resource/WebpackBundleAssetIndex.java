@@ -0,0 +1,388 @@
+package org.app.template.config.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * In-memory index of all webpack resources. Classpath is scanned once at startup, so lookup of known
+ * or missing resource is a map probe. Missing paths are remembered in a bounded negative cache.
+ * Pre-compressed variants (.br, .gz) are attached to their original resources, gzip variants of other resources
+ * are compressed in background to {@link WebpackBundleFileCache}.
+ *
+ * @author i.segodin
+ */
+@Component
+public class WebpackBundleAssetIndex {
+
+    private static final Log logger = LogFactory.getLog(WebpackBundleAssetIndex.class);
+
+    static final String ENCODING_GZIP = "gzip";
+
+    static final String ENCODING_BROTLI = "br";
+
+    /**
+     * Key is file suffix of pre-compressed variant, value is content encoding. Ordered by preference.
+     * */
+    private static final Map<String, String> ENCODED_SUFFIXES = new LinkedHashMap<>();
+
+    static {
+        ENCODED_SUFFIXES.put(".br", ENCODING_BROTLI);
+        ENCODED_SUFFIXES.put(".gz", ENCODING_GZIP);
+    }
+
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = new HashSet<>(Arrays.asList(".js", ".css", ".json", ".map", ".svg", ".html", ".txt"));
+
+    private static final long MIN_COMPRESSION_SIZE = 1024;
+
+    @Autowired
+    private WebpackBundleConfig bundleConfig;
+
+    @Autowired
+    private WebpackBundleFileCache fileCache;
+
+    @Value("${spring.config.assetNegativeCacheSize:1024}")
+    private int negativeCacheSize;
+
+    private final PathMatchingResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+
+    /**
+     * Key is real path or logical path (without hash) of a resource.
+     * */
+    private volatile Map<String, WebpackBundleAsset> assets = Collections.emptyMap();
+
+    private final Map<String, Boolean> missingPaths = new ConcurrentHashMap<>();
+
+    /**
+     * Manifest snapshot, which current index was built with
+     * */
+    private volatile Map<String, String> indexedManifest;
+
+    /**
+     * Assets, which gzip variant is being compressed
+     * */
+    private final Set<WebpackBundleAsset> compressingAssets = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService compressionExecutor;
+
+    @PostConstruct
+    private void init() {
+        rebuild();
+        if (bundleConfig.isAssetCompression()) {
+            compressionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "webpack-compression");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (compressionExecutor != null) {
+            compressionExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param requestPath path relative to assets folder, with or without hash
+     * @return resource description or null if there is no such resource
+     * */
+    public WebpackBundleAsset find(String requestPath) {
+        WebpackBundleAsset asset = lookup(requestPath);
+        if (asset != null) {
+            return asset;
+        }
+
+        /**
+         * Webpack may add new files, when manifest is reloadable (development mode). Webpack rewrites manifest
+         * on every build, so classpath is scanned again only when manifest changed, not on every miss.
+         * */
+        if (bundleConfig.isManifestReloadable() && rebuildIfManifestChanged()) {
+            asset = lookup(requestPath);
+            if (asset != null) {
+                return asset;
+            }
+        }
+
+        if (missingPaths.containsKey(requestPath)) {
+            return null;
+        }
+        if (missingPaths.size() >= negativeCacheSize) {
+            missingPaths.clear();
+        }
+        missingPaths.put(requestPath, Boolean.TRUE);
+        return null;
+    }
+
+    /**
+     * @return true when index was rebuilt, because manifest was reloaded after last rebuild
+     * */
+    private boolean rebuildIfManifestChanged() {
+        if (bundleConfig.getJavascriptManifest() == indexedManifest) {
+            return false;
+        }
+        synchronized (this) {
+            if (bundleConfig.getJavascriptManifest() == indexedManifest) {
+                return false;
+            }
+            rebuild();
+            return true;
+        }
+    }
+
+    /**
+     * Scans classpath for resources and replaces current index.
+     * */
+    public synchronized void rebuild() {
+        Map<String, String> manifest = bundleConfig.getJavascriptManifest();
+
+        String relativeFolderPath = bundleConfig.getRelativePath() + "/";
+        Map<String, WebpackBundleAsset> realPathAssets = new HashMap<>();
+        Map<String, WebpackBundleAsset> logicalPathAssets = new HashMap<>();
+
+        Map<String, Resource> resources = new LinkedHashMap<>();
+        try {
+            Resource[] roots = resourcePatternResolver.getResources(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + relativeFolderPath);
+            for (Resource root : roots) {
+                String rootUrl = root.getURL().toString();
+                for (Resource resource : resourcePatternResolver.getResources(rootUrl + "**/*")) {
+                    String resourceUrl = resource.getURL().toString();
+                    if (resourceUrl.endsWith("/") || !resourceUrl.startsWith(rootUrl) || !resource.isReadable()) {
+                        continue;
+                    }
+                    resources.putIfAbsent(resourceUrl.substring(rootUrl.length()), resource);
+                }
+            }
+
+            for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+                if (getEncodedOriginalPath(entry.getKey(), resources) == null) {
+                    WebpackBundleAsset asset = createAsset(entry.getKey(), entry.getValue());
+                    realPathAssets.put(entry.getKey(), asset);
+                    logicalPathAssets.putIfAbsent(asset.getLogicalPath(), asset);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failure scanning webpack resources", e);
+        }
+
+        /**
+         * Pre-compressed variants, produced by webpack
+         * */
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            String originalPath = getEncodedOriginalPath(entry.getKey(), resources);
+            WebpackBundleAsset asset = originalPath != null ? realPathAssets.get(originalPath) : null;
+            if (asset != null) {
+                String encoding = ENCODED_SUFFIXES.get(entry.getKey().substring(originalPath.length()));
+                asset.getEncodedResources().put(encoding, new WebpackBundleEncodedResource(asset.getResource(), encoding, entry.getValue()));
+            }
+        }
+
+        /**
+         * Manifest knows actual resource for logical path, when there are several resources with different hash
+         * */
+        if (manifest != null) {
+            for (Map.Entry<String, String> entry : manifest.entrySet()) {
+                WebpackBundleAsset asset = realPathAssets.get(entry.getValue());
+                if (asset != null) {
+                    logicalPathAssets.put(entry.getKey(), asset);
+                }
+            }
+        }
+
+        Map<String, WebpackBundleAsset> assets = new HashMap<>(logicalPathAssets);
+        assets.putAll(realPathAssets);
+
+        this.assets = Collections.unmodifiableMap(assets);
+        this.indexedManifest = manifest;
+        /**
+         * Negative cache is kept, only paths, which exist now, are forgotten
+         * */
+        missingPaths.keySet().removeIf(path -> lookup(path) != null);
+    }
+
+    /**
+     * Chooses best content encoding, which is accepted by client, among variants available now. Gzip variant, which wasn't
+     * produced by webpack, is scheduled for compression on first request, resource is served as is until it is ready.
+     *
+     * @param asset resource description
+     * @param acceptEncoding value of Accept-Encoding header
+     * @return content encoding or null when resource should be served as is
+     * */
+    public String negotiateEncoding(WebpackBundleAsset asset, String acceptEncoding) {
+        if (acceptEncoding == null || !isCompressible(asset)) {
+            return null;
+        }
+        for (String encoding : ENCODED_SUFFIXES.values()) {
+            if (!isAccepted(acceptEncoding, encoding)) {
+                continue;
+            }
+            Resource resource = asset.getEncodedResource(encoding);
+            if (resource instanceof WebpackBundleEncodedResource) {
+                return encoding;
+            }
+            if (resource == null && ENCODING_GZIP.equals(encoding)) {
+                scheduleCompression(asset);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param asset resource description
+     * @param encoding content encoding or null
+     * @return encoded resource or original resource, when there is no such encoded variant
+     * */
+    public Resource getEncodedResource(WebpackBundleAsset asset, String encoding) {
+        if (encoding == null) {
+            return asset.getResource();
+        }
+        Resource resource = asset.getEncodedResource(encoding);
+        return resource != null ? resource : asset.getResource();
+    }
+
+    /**
+     * @return true when resource type benefits from compression
+     * */
+    public boolean isCompressible(WebpackBundleAsset asset) {
+        if (asset.getSize() < MIN_COMPRESSION_SIZE) {
+            return false;
+        }
+        int extensionIdx = asset.getPath().lastIndexOf('.');
+        return extensionIdx > -1 && COMPRESSIBLE_EXTENSIONS.contains(asset.getPath().substring(extensionIdx).toLowerCase());
+    }
+
+    public int size() {
+        return assets.size();
+    }
+
+    private WebpackBundleAsset lookup(String requestPath) {
+        Map<String, String> manifest = bundleConfig.getJavascriptManifest();
+        String pathFromManifest = manifest != null ? manifest.get(requestPath) : null;
+        return assets.get(pathFromManifest != null ? pathFromManifest : requestPath);
+    }
+
+    /**
+     * Compresses gzip variant in background, at most once per asset
+     * */
+    private void scheduleCompression(WebpackBundleAsset asset) {
+        if (compressionExecutor == null || !compressingAssets.add(asset)) {
+            return;
+        }
+        try {
+            compressionExecutor.execute(() -> {
+                try {
+                    asset.getEncodedResources().putIfAbsent(ENCODING_GZIP, compress(asset));
+                } finally {
+                    compressingAssets.remove(asset);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            compressingAssets.remove(asset);
+        }
+    }
+
+    /**
+     * @return gzip variant in file cache or original resource, when compression doesn't make it smaller
+     * */
+    private Resource compress(WebpackBundleAsset asset) {
+        try (InputStream inputStream = asset.getResource().getInputStream()) {
+            File file = fileCache.writeFile(asset, ENCODING_GZIP, outputStream -> {
+                try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+                    StreamUtils.copy(inputStream, gzipOutputStream);
+                }
+            });
+            if (file.length() < asset.getSize()) {
+                return new WebpackBundleEncodedResource(asset.getResource(), ENCODING_GZIP, new FileSystemResource(file));
+            }
+            file.delete();
+        } catch (IOException e) {
+            logger.warn("Failure compressing webpack resource " + asset.getPath(), e);
+        }
+        return asset.getResource();
+    }
+
+    /**
+     * @return path of original resource, when given path is pre-compressed variant of it
+     * */
+    private String getEncodedOriginalPath(String path, Map<String, Resource> resources) {
+        for (String suffix : ENCODED_SUFFIXES.keySet()) {
+            if (path.endsWith(suffix)) {
+                String originalPath = path.substring(0, path.length() - suffix.length());
+                return resources.containsKey(originalPath) ? originalPath : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true when Accept-Encoding header contains given encoding or wildcard (*) with non zero quality.
+     * Wildcard applies only to encodings, which are not listed explicitly
+     * */
+    static boolean isAccepted(String acceptEncoding, String encoding) {
+        boolean wildcardAccepted = false;
+        for (String token : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            String[] parts = StringUtils.tokenizeToStringArray(token, ";");
+            if (parts.length == 0) {
+                continue;
+            }
+            if (parts[0].equalsIgnoreCase(encoding)) {
+                return !hasZeroQuality(parts);
+            }
+            if ("*".equals(parts[0])) {
+                wildcardAccepted = !hasZeroQuality(parts);
+            }
+        }
+        return wildcardAccepted;
+    }
+
+    private static boolean hasZeroQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            if (parts[i].matches("q\\s*=\\s*0(\\.0*)?")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private WebpackBundleAsset createAsset(String path, Resource resource) throws IOException {
+        String logicalPath = path;
+        String hash = null;
+
+        Matcher matcher = WebpackBundleConfig.HASH_PATTERN.matcher(path);
+        if (matcher.matches()) {
+            hash = matcher.group(WebpackBundleConfig.HASH_GROUP);
+            logicalPath = matcher.group(WebpackBundleConfig.NAME_GROUP) + matcher.group(WebpackBundleConfig.EXTENSION_GROUP);
+        }
+
+        return new WebpackBundleAsset(logicalPath, path, hash, resource.contentLength(), resource);
+    }
+}
@@ -0,0 +1,89 @@
+package org.app.template.config.resource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Writes resource content with non-blocking I/O: chunks are written while output stream is ready,
+ * then container calls {@link #onWritePossible()} again when socket drains, so no thread waits for slow client.
+ *
+ * @author i.segodin
+ */
+final class WebpackBundleAsyncWriter implements WriteListener, AsyncListener {
+
+    private static final Log logger = LogFactory.getLog(WebpackBundleAsyncWriter.class);
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    private final AsyncContext asyncContext;
+
+    private final ServletOutputStream outputStream;
+
+    private final ByteBuffer content;
+
+    private final byte[] chunk;
+
+    /**
+     * @param content resource content, read from current position to limit
+     * */
+    WebpackBundleAsyncWriter(AsyncContext asyncContext, ServletOutputStream outputStream, ByteBuffer content) {
+        this.asyncContext = asyncContext;
+        this.outputStream = outputStream;
+        this.content = content;
+        this.chunk = new byte[Math.min(CHUNK_SIZE, content.remaining())];
+    }
+
+    /**
+     * Starts writing, current thread returns to container after first chunks
+     * */
+    void start() {
+        asyncContext.addListener(this);
+        outputStream.setWriteListener(this);
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (outputStream.isReady()) {
+            if (!content.hasRemaining()) {
+                asyncContext.complete();
+                return;
+            }
+            int length = Math.min(chunk.length, content.remaining());
+            content.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Failure writing webpack resource", throwable);
+        }
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) throws IOException {
+        asyncContext.complete();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) throws IOException {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) throws IOException {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) throws IOException {
+    }
+}
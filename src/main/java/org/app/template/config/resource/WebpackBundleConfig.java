@@ -2,28 +2,47 @@ package org.app.template.config.resource;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.InputStream;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.stereotype.Component;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Holds map with names or resources, where key is name without hash.
+ * When {@code spring.config.jsManifestTTL} is set and manifest is on file system, it is polled by background thread
+ * with TTL period and replaced atomically on change.
  *
  * @author i.segodin
  */
 @Component("webpackBundle")
 public class WebpackBundleConfig {
 
+    private static final Log logger = LogFactory.getLog(WebpackBundleConfig.class);
+
+    private static final long MIN_MANIFEST_POLL_PERIOD = 100;
+
     private String pathToManifest;
 
     public static final String NAME_GROUP = "name";
@@ -38,12 +57,41 @@ public class WebpackBundleConfig {
 
     public static final Pattern NO_HASH_PATTERN = Pattern.compile("^(?<" + NAME_GROUP + ">.+)(?<" + EXTENSION_GROUP + ">\\.\\w+)$");
 
+    public static final String COMMONS_CHUNK = "js/page-commons.js";
+
+    private static final String PAGE_VIEW_PREFIX = "pages/";
+
+    private static final String PAGE_CHUNK_PREFIX = "js/application/pages/";
+
+    private static final String PAGE_CHUNK_SUFFIX = "_page.js";
+
     @Value("${server.contextPath}")
     private String contextPath;
 
     @Value("${spring.config.jsManifestTTL:-1}")
     private long jsManifestTTL;
 
+    @Value("${spring.config.assetStreaming:true}")
+    private boolean assetStreaming;
+
+    @Value("${spring.config.assetCompression:true}")
+    private boolean assetCompression;
+
+    @Value("${spring.config.assetZeroCopy:true}")
+    private boolean assetZeroCopy;
+
+    @Value("${spring.config.assetAsync:true}")
+    private boolean assetAsync;
+
+    @Value("${spring.config.assetAsyncMinSize:32768}")
+    private long assetAsyncMinSize;
+
+    @Value("${spring.config.assetAsyncTimeout:120000}")
+    private long assetAsyncTimeout;
+
+    /**
+     * Modification time of manifest file, accessed only by watcher thread
+     * */
     private long lastModified = 0;
 
     private String relativePath = "assets";
@@ -51,26 +99,70 @@ public class WebpackBundleConfig {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private Map<String, String> javascriptManifest;
+    /**
+     * Immutable snapshot, replaced as a whole when manifest changes
+     * */
+    private volatile Map<String, String> javascriptManifest = Collections.emptyMap();
+
+    /**
+     * Manifest on file system, null when application is packaged
+     * */
+    private File manifestFile;
+
+    private ScheduledExecutorService manifestWatcher;
 
     @PostConstruct
     private void init(){
         pathToManifest = "assets/javascript-manifest.json";
-        readManifest();
-    }
+        Resource manifestResource = new ClassPathResource(pathToManifest, this.getClass().getClassLoader());
+        readManifest(manifestResource);
 
-    private Map<String, String> readManifest(){
-        try {
-            File file = new File(this.getClass().getClassLoader().getResource(pathToManifest).toURI());
-            if((file.lastModified() - lastModified) > jsManifestTTL) {
-                Map<String, String> javascriptManifest = objectMapper.readValue(file, new TypeReference<Map<String, String>>() {
-                });
-                this.javascriptManifest = new ConcurrentHashMap<>(javascriptManifest);
-                this.lastModified = file.lastModified();
+        if (jsManifestTTL > -1) {
+            try {
+                manifestFile = manifestResource.getFile();
+            } catch (IOException e) {
+                logger.info("Webpack manifest is not on file system, reloading is disabled");
             }
-        } catch (IOException | URISyntaxException ignore) {
         }
-        return this.javascriptManifest;
+
+        /**
+         * Single background poller, so request path never touches file system
+         * */
+        if (manifestFile != null) {
+            lastModified = manifestFile.lastModified();
+            manifestWatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "webpack-manifest-watcher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(jsManifestTTL, MIN_MANIFEST_POLL_PERIOD);
+            manifestWatcher.scheduleWithFixedDelay(this::checkManifest, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (manifestWatcher != null) {
+            manifestWatcher.shutdownNow();
+        }
+    }
+
+    private void checkManifest() {
+        long modified = manifestFile.lastModified();
+        if (modified != lastModified) {
+            lastModified = modified;
+            readManifest(new FileSystemResource(manifestFile));
+        }
+    }
+
+    private void readManifest(Resource manifestResource) {
+        try (InputStream inputStream = manifestResource.getInputStream()) {
+            Map<String, String> javascriptManifest = objectMapper.readValue(inputStream, new TypeReference<Map<String, String>>() {
+            });
+            this.javascriptManifest = Collections.unmodifiableMap(new HashMap<>(javascriptManifest));
+        } catch (IOException e) {
+            logger.warn("Failure reading webpack manifest " + pathToManifest, e);
+        }
     }
 
     /**
@@ -78,13 +170,38 @@ public class WebpackBundleConfig {
      * @return real path name with hash
      * */
     public String getPath(String chunkName) {
-        if (getJavascriptManifest().containsKey(chunkName)) {
-            chunkName = getJavascriptManifest().get(chunkName);
+        String pathFromManifest = getJavascriptManifest().get(chunkName);
+        if (pathFromManifest != null) {
+            chunkName = pathFromManifest;
         }
 
         return Paths.get(contextPath, relativePath, chunkName).toString().replace("\\", "/");
     }
 
+    /**
+     * Page chunk follows webpack entry naming: view "pages/login" has chunk "js/application/pages/login_page.js".
+     *
+     * @param viewName name of page view
+     * @return real paths of chunks, which page needs (common chunk first), or empty list if page has no chunk
+     * */
+    public List<String> getPageChunkPaths(String viewName) {
+        if (viewName == null || !viewName.startsWith(PAGE_VIEW_PREFIX)) {
+            return Collections.emptyList();
+        }
+        Map<String, String> manifest = getJavascriptManifest();
+        String pageChunk = PAGE_CHUNK_PREFIX + viewName.substring(PAGE_VIEW_PREFIX.length()) + PAGE_CHUNK_SUFFIX;
+        if (!manifest.containsKey(pageChunk)) {
+            return Collections.emptyList();
+        }
+
+        List<String> chunkPaths = new ArrayList<>(2);
+        if (manifest.containsKey(COMMONS_CHUNK)) {
+            chunkPaths.add(getPath(COMMONS_CHUNK));
+        }
+        chunkPaths.add(getPath(pageChunk));
+        return chunkPaths;
+    }
+
     /**
      * @return {@link Matcher} for path with or without hash.
      * */
@@ -117,8 +234,64 @@ public class WebpackBundleConfig {
         }
     }
 
+    /**
+     * @return true when manifest is re-read on changes (development mode)
+     * */
+    public boolean isManifestReloadable() {
+        return manifestFile != null;
+    }
+
+    /**
+     * @return true when resources with known hash are written without response buffering
+     * */
+    public boolean isAssetStreaming() {
+        return assetStreaming;
+    }
+
+    /**
+     * @return true when gzip variant is compressed on first request, if webpack didn't produce it
+     * */
+    public boolean isAssetCompression() {
+        return assetCompression;
+    }
+
+    /**
+     * @return true when resources are served with sendfile or from memory-mapped files
+     * */
+    public boolean isAssetZeroCopy() {
+        return assetZeroCopy;
+    }
+
+    /**
+     * @return true when memory-mapped resources are written with non-blocking I/O, releasing request thread
+     * */
+    public boolean isAssetAsync() {
+        return assetAsync;
+    }
+
+    /**
+     * @return smaller resources are written at once, as they fit into socket buffer
+     * */
+    public long getAssetAsyncMinSize() {
+        return assetAsyncMinSize;
+    }
+
+    /**
+     * @return milliseconds, after which non-blocking write is abandoned
+     * */
+    public long getAssetAsyncTimeout() {
+        return assetAsyncTimeout;
+    }
+
+    /**
+     * @return Cache-Control for webpack resources
+     * */
+    public CacheControl getCacheControl() {
+        return CacheControl.empty().mustRevalidate();
+    }
+
     public Map<String, String> getJavascriptManifest() {
-        return jsManifestTTL > -1 ? readManifest() : javascriptManifest;
+        return javascriptManifest;
     }
 
     public String getRelativePath() {
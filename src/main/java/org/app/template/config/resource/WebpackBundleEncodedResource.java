@@ -0,0 +1,70 @@
+package org.app.template.config.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.EncodedResource;
+
+/**
+ * Compressed variant of webpack resource. Keeps file name of original resource, so content type is resolved as for original.
+ * Content is either pre-compressed resource from classpath or file compressed at runtime.
+ *
+ * @author i.segodin
+ */
+public class WebpackBundleEncodedResource extends AbstractResource implements EncodedResource {
+
+    private final Resource original;
+
+    private final String contentEncoding;
+
+    private final Resource encoded;
+
+    public WebpackBundleEncodedResource(Resource original, String contentEncoding, Resource encoded) {
+        this.original = original;
+        this.contentEncoding = contentEncoding;
+        this.encoded = encoded;
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return encoded.getInputStream();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return encoded.contentLength();
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        return encoded.getFile();
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return original.lastModified();
+    }
+
+    @Override
+    public String getFilename() {
+        return original.getFilename();
+    }
+
+    @Override
+    public String getDescription() {
+        return contentEncoding + " encoded " + original.getDescription();
+    }
+}
@@ -1,17 +1,25 @@
 package org.app.template.config.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.regex.Matcher;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import javax.servlet.AsyncContext;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.app.template.metrics.LatencyHistogram;
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpMethod;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingResponseWrapper;
@@ -19,6 +27,10 @@ import org.springframework.web.util.WebUtils;
 
 /**
  * ETag filter for Webpack resources. Adds ETag header and skips resource loading when resource is up to date.
+ * When hash of resource is known up front, response is streamed without buffering,
+ * and whole resource requests are served with Tomcat sendfile or from memory-mapped file.
+ * Large memory-mapped resources are written with non-blocking I/O in async mode, so request thread is released
+ * while slow client drains the socket.
  *
  * @author i.segodin
  */
@@ -32,6 +44,27 @@ public class WebpackBundleEtagHeaderFilter extends OncePerRequestFilter {
 
     private static final String HEADER_CACHE_CONTROL = "Cache-Control";
 
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
+    private static final String HEADER_VARY = "Vary";
+
+    private static final String HEADER_RANGE = "Range";
+
+    private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    /** Tomcat sendfile request attributes */
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
     private static final String DIRECTIVE_NO_STORE = "no-store";
 
     /** Checking for Servlet 3.0+ HttpServletResponse.getHeader(String) */
@@ -39,53 +72,89 @@ public class WebpackBundleEtagHeaderFilter extends OncePerRequestFilter {
 
     private WebpackBundleConfig bundleConfig;
 
+    private WebpackBundleAssetIndex assetIndex;
+
+    private WebpackBundleFileCache fileCache;
+
+    private LatencyHistogram filterTimer;
+
     @Override
     protected void initFilterBean() throws ServletException {
         if(bundleConfig == null){
             bundleConfig = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(WebpackBundleConfig.class);
         }
+        if(assetIndex == null){
+            assetIndex = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(WebpackBundleAssetIndex.class);
+        }
+        if(fileCache == null){
+            fileCache = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(WebpackBundleFileCache.class);
+        }
+        if(filterTimer == null){
+            filterTimer = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(MetricsRegistry.class).timer("webpack.etagFilter");
+        }
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
-        HttpServletResponse responseToUse = response;
-        if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
-            responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+        long start = System.nanoTime();
+        try {
+            filterAsset(request, response, filterChain);
+        } finally {
+            filterTimer.recordSince(start);
         }
+    }
 
-        ContentCachingResponseWrapper responseWrapper = WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class);
-        Assert.notNull(responseWrapper, "ContentCachingResponseWrapper not found");
-        HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
+    private void filterAsset(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        WebpackBundleAsset asset = assetIndex.find(getRelativeRequestPath(request));
+        String encoding = null;
+        String hash = null;
+        if (asset != null) {
+            /**
+             * Each encoded variant has its own ETag
+             * */
+            encoding = assetIndex.negotiateEncoding(asset, request.getHeader(HEADER_ACCEPT_ENCODING));
+            hash = asset.getETag(encoding);
+            if (assetIndex.isCompressible(asset)) {
+                response.addHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+            }
+        }
 
-        String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
         /**
          * Check ETag from browser
          * */
-        if (requestETag != null) {
-            String relativePath = bundleConfig.getRelativePath() + "/";
-            int startIdx = request.getServletPath().indexOf(relativePath);
-
-            String relativeRequestPath = request.getServletPath().substring(startIdx + relativePath.length());
+        String requestETag = request.getHeader(HEADER_IF_NONE_MATCH);
+        if (hash != null && hash.equals(requestETag)) {
+            /**
+             * Browser resource is up to date (304)
+             * */
+            response.setHeader(HEADER_ETAG, hash);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
-            String resourcePath = bundleConfig.getJavascriptManifest().get(relativeRequestPath);
-            if (resourcePath == null) {
-                resourcePath = relativeRequestPath;
+        /**
+         * ETag of known resource is resolved before body is written, so body goes straight to the raw response
+         * */
+        if (asset != null && bundleConfig.isAssetStreaming() && !isAsyncDispatch(request)) {
+            if (hash != null && (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()))) {
+                response.setHeader(HEADER_ETAG, hash);
             }
-
-            Matcher matcher = bundleConfig.getPathMatcher(resourcePath);
-            String hash = bundleConfig.getGroupSafe(matcher, bundleConfig.HASH_GROUP);
-
-            if (hash != null && hash.equals(requestETag)) {
-                /**
-                 * Browser resource is up to date (304)
-                 * */
-                rawResponse.setHeader(HEADER_ETAG, hash);
-                rawResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
-                responseWrapper.copyBodyToResponse();
+            if (isEligibleForZeroCopy(request) && writeLocalFile(request, response, asset, encoding)) {
                 return;
             }
+            filterChain.doFilter(request, response);
+            return;
         }
 
+        HttpServletResponse responseToUse = response;
+        if (!isAsyncDispatch(request) && !(response instanceof ContentCachingResponseWrapper)) {
+            responseToUse = new HttpStreamingAwareContentCachingResponseWrapper(response, request);
+        }
+
+        ContentCachingResponseWrapper responseWrapper = WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class);
+        Assert.notNull(responseWrapper, "ContentCachingResponseWrapper not found");
+        HttpServletResponse rawResponse = (HttpServletResponse) responseWrapper.getResponse();
+
         /**
          * Need to invoke resource resolvers etc.
          * */
@@ -105,6 +174,80 @@ public class WebpackBundleEtagHeaderFilter extends OncePerRequestFilter {
 
     }
 
+    /**
+     * Whole resource is requested and files are immutable (not in development mode)
+     * */
+    private boolean isEligibleForZeroCopy(HttpServletRequest request) {
+        return bundleConfig.isAssetZeroCopy() && !bundleConfig.isManifestReloadable()
+                && HttpMethod.GET.matches(request.getMethod()) && request.getHeader(HEADER_RANGE) == null;
+    }
+
+    /**
+     * Writes resource from local file with Tomcat sendfile, when supported, otherwise from memory-mapped file.
+     *
+     * @return false when resource has no local file, so it should be served by resource handler
+     * */
+    private boolean writeLocalFile(HttpServletRequest request, HttpServletResponse response, WebpackBundleAsset asset, String encoding) throws IOException {
+        Resource resource = assetIndex.getEncodedResource(asset, encoding);
+        File file = fileCache.getFile(asset, encoding, resource);
+        String contentType = getServletContext().getMimeType(asset.getPath());
+        if (file == null || contentType == null) {
+            return false;
+        }
+
+        /**
+         * Resource handler is skipped, so If-Modified-Since is checked here (If-None-Match takes precedence)
+         * */
+        response.setHeader(HEADER_CACHE_CONTROL, bundleConfig.getCacheControl().getHeaderValue());
+        long lastModified = resource.lastModified();
+        if (new ServletWebRequest(request, response).checkNotModified(asset.getETag(encoding), lastModified)) {
+            return true;
+        }
+
+        long contentLength = file.length();
+        response.setContentType(contentType);
+        response.setHeader(HEADER_CONTENT_LENGTH, Long.toString(contentLength));
+        response.setDateHeader(HEADER_LAST_MODIFIED, lastModified);
+        if (encoding != null) {
+            response.setHeader(HEADER_CONTENT_ENCODING, encoding);
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, contentLength);
+        } else if (isEligibleForAsyncWrite(request, response, contentLength)) {
+            AsyncContext asyncContext = request.startAsync(request, response);
+            asyncContext.setTimeout(bundleConfig.getAssetAsyncTimeout());
+            new WebpackBundleAsyncWriter(asyncContext, response.getOutputStream(), fileCache.getMappedFile(file).duplicate()).start();
+        } else {
+            ByteBuffer buffer = fileCache.getMappedFile(file).duplicate();
+            WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Response must go straight to container, buffering wrappers don't support non-blocking writes
+     * */
+    private boolean isEligibleForAsyncWrite(HttpServletRequest request, HttpServletResponse response, long contentLength) {
+        return bundleConfig.isAssetAsync() && contentLength >= bundleConfig.getAssetAsyncMinSize() && request.isAsyncSupported()
+                && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null;
+    }
+
+    /**
+     * @return request path relative to assets folder
+     * */
+    private String getRelativeRequestPath(HttpServletRequest request) {
+        String relativePath = bundleConfig.getRelativePath() + "/";
+        int startIdx = request.getServletPath().indexOf(relativePath);
+
+        return request.getServletPath().substring(startIdx + relativePath.length());
+    }
+
     /**
      * Indicates whether the given request and response are eligible for ETag generation.
      * <p>The default implementation returns {@code true} if all conditions match:
@@ -0,0 +1,240 @@
+package org.app.template.config.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Local files of webpack resources, for zero-copy serving (sendfile or memory-mapped).
+ * Resources from file system are used as is, resources inside WAR/jar are extracted once to a cache folder, runtime compressed variants are written there too.
+ * Folder is deleted on shutdown, folders left by killed processes are deleted on next start.
+ *
+ * @author i.segodin
+ */
+@Component
+public class WebpackBundleFileCache {
+
+    private static final Log logger = LogFactory.getLog(WebpackBundleFileCache.class);
+
+    private static final String IDENTITY_ENCODING = "identity";
+
+    private static final String CACHE_DIR_PREFIX = "webpack-assets";
+
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * Lock file in base folder, doesn't match {@link #CACHE_DIR_PREFIX}
+     * */
+    private static final String BASE_LOCK_FILE = "." + CACHE_DIR_PREFIX + ".lock";
+
+    private static final long BASE_LOCK_RETRY_MILLIS = 10;
+
+    @Value("${spring.config.assetCacheDir:}")
+    private String assetCacheDir;
+
+    private Path cacheDir;
+
+    private FileChannel lockChannel;
+
+    /**
+     * Key is real path of resource and content encoding
+     * */
+    private final Map<String, File> files = new ConcurrentHashMap<>();
+
+    private final Map<File, MappedByteBuffer> mappedFiles = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void init() throws IOException {
+        Path baseDir = Paths.get(StringUtils.hasText(assetCacheDir) ? assetCacheDir : System.getProperty("java.io.tmpdir"));
+        Files.createDirectories(baseDir);
+        /**
+         * Resources without hash may change between deploys, so every start gets its own folder,
+         * which is locked while application runs. Cleanup and creation of folder with its lock run under lock
+         * of base folder, so starting instance never deletes folder of another one, which is not locked yet
+         * */
+        try (FileChannel baseLockChannel = FileChannel.open(baseDir.resolve(BASE_LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = lockBaseDir(baseLockChannel)) {
+            removeStaleDirs(baseDir);
+            cacheDir = Files.createTempDirectory(baseDir, CACHE_DIR_PREFIX);
+            lockChannel = FileChannel.open(cacheDir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            lockChannel.lock();
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        mappedFiles.clear();
+        files.clear();
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            logger.warn("Failure releasing lock of " + cacheDir, e);
+        }
+        deleteDir(cacheDir);
+    }
+
+    /**
+     * Removes folders of previous starts, which were not deleted on shutdown. Folders of running applications are locked.
+     * */
+    private void removeStaleDirs(Path baseDir) throws IOException {
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(baseDir, CACHE_DIR_PREFIX + "*")) {
+            for (Path dir : dirs) {
+                if (Files.isDirectory(dir) && !isLocked(dir)) {
+                    logger.info("Removing stale webpack resource folder " + dir);
+                    deleteDir(dir);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for exclusive lock of base folder
+     * */
+    private static FileLock lockBaseDir(FileChannel channel) throws IOException {
+        while (true) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException e) {
+                // held by another application in this JVM, which is starting
+                try {
+                    Thread.sleep(BASE_LOCK_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for lock of webpack resource folders");
+                }
+            }
+        }
+    }
+
+    private boolean isLocked(Path dir) {
+        Path lockFile = dir.resolve(LOCK_FILE);
+        if (!Files.exists(lockFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // locked by this JVM, another application in the same container
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void deleteDir(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failure deleting webpack resource folder " + dir, e);
+        }
+    }
+
+    /**
+     * @param asset resource description
+     * @param encoding content encoding or null
+     * @param resource original or encoded resource of asset
+     * @return local file with resource content or null if resource can't be extracted
+     * */
+    public File getFile(WebpackBundleAsset asset, String encoding, Resource resource) {
+        String key = asset.getPath() + ":" + (encoding != null ? encoding : IDENTITY_ENCODING);
+        File file = files.get(key);
+        if (file == null) {
+            file = resolveFile(asset, encoding, resource);
+            if (file != null) {
+                files.putIfAbsent(key, file);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return read only memory-mapped content of a file, mapped once
+     * */
+    public MappedByteBuffer getMappedFile(File file) throws IOException {
+        MappedByteBuffer buffer = mappedFiles.get(file);
+        if (buffer == null) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            mappedFiles.putIfAbsent(file, buffer);
+        }
+        return buffer;
+    }
+
+    private File resolveFile(WebpackBundleAsset asset, String encoding, Resource resource) {
+        try {
+            return resource.getFile();
+        } catch (IOException ignore) {
+            // resource is not on file system
+        }
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            return writeFile(asset, encoding, outputStream -> StreamUtils.copy(inputStream, outputStream));
+        } catch (IOException e) {
+            logger.warn("Failure extracting webpack resource " + asset.getPath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes content of a resource variant to cache folder. Content is written to temporary file and moved, so readers never see partial file.
+     *
+     * @param asset resource description
+     * @param encoding content encoding or null
+     * @param writer writes content to given stream
+     * @return written file
+     * */
+    public File writeFile(WebpackBundleAsset asset, String encoding, ContentWriter writer) throws IOException {
+        Path target = cacheDir.resolve(asset.getPath() + (encoding != null ? "." + encoding : ""));
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                writer.write(outputStream);
+            }
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return target.toFile();
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        void write(OutputStream outputStream) throws IOException;
+    }
+}
@@ -1,20 +1,19 @@
 package org.app.template.config.resource;
 
-import java.io.IOException;
 import java.util.List;
-import java.util.regex.Matcher;
 import javax.servlet.http.HttpServletRequest;
 
+import org.app.template.metrics.LatencyHistogram;
+import org.app.template.metrics.MetricsRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.resource.PathResourceResolver;
 import org.springframework.web.servlet.resource.ResourceResolverChain;
 
 /**
- * Resource resolver, which searches for webpack resources.
+ * Resource resolver, which looks up webpack resources in {@link WebpackBundleAssetIndex}.
  *
  * @author i.segodin
  */
@@ -22,95 +21,41 @@ import org.springframework.web.servlet.resource.ResourceResolverChain;
 public class WebpackBundleResourceResolver extends PathResourceResolver {
 
     @Autowired
-    private WebpackBundleConfig bundleConfig;
+    private WebpackBundleAssetIndex assetIndex;
 
-    private PathMatchingResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+    private LatencyHistogram resolveTimer = new LatencyHistogram();
+
+    @Autowired(required = false)
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.resolveTimer = metricsRegistry.timer("webpack.resolver");
+    }
 
     @Override
     protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath, List<? extends Resource> locations, ResourceResolverChain chain) {
+        long start = System.nanoTime();
+        try {
+            return resolveAsset(request, requestPath);
+        } finally {
+            resolveTimer.recordSince(start);
+        }
+    }
 
-        Matcher requestMatcher = bundleConfig.getPathMatcher(requestPath);
-
-        // original request resource hash
-        String requestHash = bundleConfig.getGroupSafe(requestMatcher, WebpackBundleConfig.HASH_GROUP);
-
-        String pathFromManifest = bundleConfig.getJavascriptManifest().get(requestPath);
-
-        // when known resource then no need to search with pattern
-        boolean knownResource = requestHash != null || pathFromManifest != null;
-
-        if (knownResource) {
-            String knownPath = pathFromManifest != null ? pathFromManifest : requestPath;
-            for (Resource location : locations) {
-                try {
-                    Resource resource = getResource(knownPath, location);
-                    if (resource != null) {
-                        String hash = bundleConfig.getGroupSafe(WebpackBundleConfig.HASH_PATTERN.matcher(knownPath), WebpackBundleConfig.HASH_GROUP);
-                        if (hash != null) {
-                            request.setAttribute(WebpackBundleEtagHeaderFilter.ETAG_REQUEST_ATTRIBUTE, hash);
-                        }
-                        return resource;
-                    }
-                } catch (IOException e) {
-                    logger.trace("Failure checking for relative resource - trying next location", e);
-                }
-            }
-        } else {
-            String relativeFolderPath = bundleConfig.getRelativePath() + "/";
-
-            try {
-                /**
-                 * Searching for resource
-                 * */
-                Resource resource = null;
-
-                /**
-                 * First search resource with hash
-                 * */
-                String hashPattern = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + relativeFolderPath + requestMatcher.replaceFirst(WebpackBundleConfig.NAME_GROUP_CAPTURE + ".*" + WebpackBundleConfig.EXTENSION_GROUP_CAPTURE);
-
-                Resource[] hashResources = resourcePatternResolver.getResources(hashPattern);
-                if (hashResources != null && hashResources.length > 0) {
-                    resource = hashResources[0];
-
-                } else {
-                    /**
-                     * Try to search without hash
-                     * */
-                    String noHashPattern = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + relativeFolderPath + requestMatcher.replaceFirst(WebpackBundleConfig.NAME_GROUP_CAPTURE + WebpackBundleConfig.EXTENSION_GROUP_CAPTURE);
-                    Resource[] noHashResources = resourcePatternResolver.getResources(noHashPattern);
-                    if (noHashResources != null && noHashResources.length > 0) {
-                        resource = noHashResources[0];
-                    }
-                }
-
-                if (resource != null) {
-                    /**
-                     * Need to save resource to manifest map (not to search again) and set ETag to request attribute for filter
-                     * */
-                    String absolutePath = resource.getURL().getPath();
-                    int startRelativeIdx = absolutePath.indexOf(relativeFolderPath + requestMatcher.replaceFirst(WebpackBundleConfig.NAME_GROUP_CAPTURE));
-                    String relativeResourcePath = absolutePath.substring(startRelativeIdx + relativeFolderPath.length());
-
-                    Matcher matcher = bundleConfig.getPathMatcher(relativeResourcePath);
-                    String hash = bundleConfig.getGroupSafe(matcher, WebpackBundleConfig.HASH_GROUP);
-
-                    String manifestKey = relativeResourcePath;
-                    if (hash != null) {
-                        manifestKey = matcher.replaceFirst(WebpackBundleConfig.NAME_GROUP_CAPTURE + WebpackBundleConfig.EXTENSION_GROUP_CAPTURE);
-
-                        request.setAttribute(WebpackBundleEtagHeaderFilter.ETAG_REQUEST_ATTRIBUTE, hash);
-                    }
-                    bundleConfig.getJavascriptManifest().putIfAbsent(manifestKey, relativeResourcePath);
+    private Resource resolveAsset(HttpServletRequest request, String requestPath) {
+        WebpackBundleAsset asset = assetIndex.find(requestPath);
+        if (asset == null) {
+            return null;
+        }
 
-                    return resource;
-                }
+        String encoding = request != null ? assetIndex.negotiateEncoding(asset, request.getHeader(HttpHeaders.ACCEPT_ENCODING)) : null;
 
-            } catch (IOException e) {
-                logger.trace("Failure searching resources", e);
-            }
+        /**
+         * Set ETag of chosen variant to request attribute for filter
+         * */
+        String eTag = asset.getETag(encoding);
+        if (eTag != null && request != null) {
+            request.setAttribute(WebpackBundleEtagHeaderFilter.ETAG_REQUEST_ATTRIBUTE, eTag);
         }
-        return null;
+        return assetIndex.getEncodedResource(asset, encoding);
     }
 
     @Override
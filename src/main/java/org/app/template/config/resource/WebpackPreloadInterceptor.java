@@ -0,0 +1,44 @@
+package org.app.template.config.resource;
+
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Adds preload hints for webpack chunks of a page: {@code Link} response headers and model attribute
+ * for {@code <link rel="preload">} tags in layout. Chunks are taken from manifest of {@link WebpackBundleConfig}.
+ *
+ * @author i.segodin
+ */
+@Component
+public class WebpackPreloadInterceptor extends HandlerInterceptorAdapter {
+
+    public static final String PRELOAD_CHUNKS_ATTRIBUTE = "preloadChunks";
+
+    private static final String HEADER_LINK = "Link";
+
+    @Autowired
+    private WebpackBundleConfig bundleConfig;
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+        if (modelAndView == null || !modelAndView.isReference() || response.isCommitted()) {
+            return;
+        }
+
+        List<String> chunkPaths = bundleConfig.getPageChunkPaths(modelAndView.getViewName());
+        if (chunkPaths.isEmpty()) {
+            return;
+        }
+
+        for (String chunkPath : chunkPaths) {
+            response.addHeader(HEADER_LINK, "<" + chunkPath + ">; rel=preload; as=script");
+        }
+        modelAndView.addObject(PRELOAD_CHUNKS_ATTRIBUTE, chunkPaths);
+    }
+}
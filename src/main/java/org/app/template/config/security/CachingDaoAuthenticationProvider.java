@@ -0,0 +1,219 @@
+package org.app.template.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.app.template.metrics.LatencyHistogram;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Remembers successful password verifications for a short TTL, so repeated HTTP Basic requests don't run BCrypt.
+ * Key is HMAC of presented username and password, with random secret generated on start, so plaintext is never kept.
+ * Value is stored password hash, which was matched, so password change invalidates entry.
+ * When verification executor is set, every BCrypt match runs on it, including dummy match for unknown user,
+ * and attempt fails at once when executor is saturated.
+ *
+ * @author i.segodin
+ */
+public class CachingDaoAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec secretKey;
+
+    private final ThreadLocal<Mac> mac;
+
+    private final Cache<String, String> verifiedCredentials;
+
+    private final LongAdder passwordVerifications = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    private final LongAdder rejectedVerifications = new LongAdder();
+
+    private LatencyHistogram passwordVerificationTimer = new LatencyHistogram();
+
+    private ExecutorService passwordVerificationExecutor;
+
+    public CachingDaoAuthenticationProvider(long ttlSeconds, long maximumSize) {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.secretKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null || userDetails.getPassword() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        String key = createKey(authentication.getName(), authentication.getCredentials().toString());
+        String verifiedPassword = verifiedCredentials.getIfPresent(key);
+        if (userDetails.getPassword().equals(verifiedPassword)) {
+            cacheHits.increment();
+            return;
+        }
+        if (verifiedPassword != null) {
+            // password was changed, so credentials are no longer verified
+            verifiedCredentials.invalidate(key);
+        }
+
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verifiedCredentials.put(key, userDetails.getPassword());
+    }
+
+    /**
+     * Wraps encoder, so every match goes through verification executor: password check of existing user
+     * and timing-equalising match against dummy hash, which {@link DaoAuthenticationProvider} runs for unknown user.
+     * */
+    @Override
+    public void setPasswordEncoder(Object passwordEncoder) {
+        if (passwordEncoder instanceof PasswordEncoder) {
+            super.setPasswordEncoder(new BoundedPasswordEncoder((PasswordEncoder) passwordEncoder));
+        } else {
+            super.setPasswordEncoder(passwordEncoder);
+        }
+    }
+
+    /**
+     * Checks whether credentials were verified recently, without loading user and without running password encoder,
+     * so the check costs nothing for unknown users too. Entry of changed password stays until next authentication with it.
+     *
+     * @return true when next authentication with these credentials will skip password encoder
+     * */
+    public boolean isVerified(String username, String presentedPassword) {
+        return verifiedCredentials.getIfPresent(createKey(username, presentedPassword)) != null;
+    }
+
+    private boolean matches(PasswordEncoder delegate, CharSequence rawPassword, String encodedPassword) {
+        if (passwordVerificationExecutor == null) {
+            return timedMatches(delegate, rawPassword, encodedPassword);
+        }
+
+        Future<Boolean> verification;
+        try {
+            verification = passwordVerificationExecutor.submit(() -> timedMatches(delegate, rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejectedVerifications.increment();
+            throw new AuthenticationServiceException("Password verification is saturated");
+        }
+
+        try {
+            return verification.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            verification.cancel(true);
+            throw new AuthenticationServiceException("Password verification is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new AuthenticationServiceException("Failure verifying password", e.getCause());
+        }
+    }
+
+    private boolean timedMatches(PasswordEncoder delegate, CharSequence rawPassword, String encodedPassword) {
+        passwordVerifications.increment();
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            passwordVerificationTimer.recordSince(start);
+        }
+    }
+
+    /**
+     * @return how many times password encoder actually verified password
+     * */
+    public long getPasswordVerifications() {
+        return passwordVerifications.sum();
+    }
+
+    /**
+     * @return how many times password verification was skipped
+     * */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return how many times verification was rejected by saturated executor
+     * */
+    public long getRejectedVerifications() {
+        return rejectedVerifications.sum();
+    }
+
+    /**
+     * @param passwordVerificationExecutor bounded executor, which rejects tasks when saturated
+     * */
+    public void setPasswordVerificationExecutor(ExecutorService passwordVerificationExecutor) {
+        this.passwordVerificationExecutor = passwordVerificationExecutor;
+    }
+
+    public void setPasswordVerificationTimer(LatencyHistogram passwordVerificationTimer) {
+        this.passwordVerificationTimer = passwordVerificationTimer;
+    }
+
+    public void invalidateAll() {
+        verifiedCredentials.invalidateAll();
+    }
+
+    private String createKey(String username, String presentedPassword) {
+        Mac mac = this.mac.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secretKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't create " + HMAC_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Encodes on calling thread, matches through {@link #matches(PasswordEncoder, CharSequence, String)}
+     * */
+    private class BoundedPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+
+        private BoundedPasswordEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return CachingDaoAuthenticationProvider.this.matches(delegate, rawPassword, encodedPassword);
+        }
+    }
+}
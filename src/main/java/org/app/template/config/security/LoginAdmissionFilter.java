@@ -0,0 +1,126 @@
+package org.app.template.config.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Admission control for authentication attempts, which run BCrypt: form login POST and requests with HTTP Basic credentials,
+ * which were not verified recently. Basic request with credentials from verified-credentials cache of
+ * {@link CachingDaoAuthenticationProvider} costs no BCrypt, so it passes without taking tokens. The cache check doesn't
+ * load user, so requests of unknown users reach the database only after they are charged.
+ * Attempt is admitted only when both bucket of client IP and bucket of account have a token, otherwise
+ * response is 429 without body, before BCrypt. Placed in security filter chain before authentication filters.
+ *
+ * @author i.segodin
+ */
+public class LoginAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final String loginProcessingUrl;
+
+    private final String usernameParameter;
+
+    private final TokenBucketLimiter ipLimiter;
+
+    private final TokenBucketLimiter accountLimiter;
+
+    private final CachingDaoAuthenticationProvider authenticationProvider;
+
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    private final LongAdder rejectedByAccount = new LongAdder();
+
+    public LoginAdmissionFilter(String loginProcessingUrl, String usernameParameter, TokenBucketLimiter ipLimiter, TokenBucketLimiter accountLimiter,
+                               CachingDaoAuthenticationProvider authenticationProvider) {
+        this.loginProcessingUrl = loginProcessingUrl;
+        this.usernameParameter = usernameParameter;
+        this.ipLimiter = ipLimiter;
+        this.accountLimiter = accountLimiter;
+        this.authenticationProvider = authenticationProvider;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String account = getAccount(request);
+        if (account == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ip = request.getRemoteAddr();
+        if (!ipLimiter.tryAcquire(ip)) {
+            rejectedByIp.increment();
+            reject(response, ipLimiter.getWaitNanos(ip));
+            return;
+        }
+        if (!accountLimiter.tryAcquire(account)) {
+            rejectedByAccount.increment();
+            reject(response, accountLimiter.getWaitNanos(account));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return account of authentication attempt or null if request is not an authentication attempt, which runs BCrypt
+     * */
+    private String getAccount(HttpServletRequest request) {
+        if ("POST".equals(request.getMethod()) && loginProcessingUrl.equals(request.getServletPath())) {
+            String username = request.getParameter(usernameParameter);
+            return username != null ? username.trim().toLowerCase() : "";
+        }
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+            try {
+                String credentials = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length()).trim()), StandardCharsets.UTF_8);
+                int separatorIdx = credentials.indexOf(':');
+                if (separatorIdx < 0) {
+                    // rejected by BasicAuthenticationFilter without authentication
+                    return null;
+                }
+                String username = credentials.substring(0, separatorIdx);
+                if (authenticationProvider.isVerified(username, credentials.substring(separatorIdx + 1))) {
+                    return null;
+                }
+                return username.trim().toLowerCase();
+            } catch (IllegalArgumentException e) {
+                // malformed header is rejected by BasicAuthenticationFilter without authentication
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(TimeUnit.NANOSECONDS.toSeconds(waitNanos), 1)));
+    }
+
+    public long getRejectedByIp() {
+        return rejectedByIp.sum();
+    }
+
+    public long getRejectedByAccount() {
+        return rejectedByAccount.sum();
+    }
+
+    /**
+     * @return number of IP and account buckets
+     * */
+    public int getBuckets() {
+        return ipLimiter.size() + accountLimiter.size();
+    }
+}
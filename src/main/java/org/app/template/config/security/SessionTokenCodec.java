@@ -0,0 +1,173 @@
+package org.app.template.config.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Signs and verifies session tokens: {@code keyId.payload.signature}, where payload is user id, permission mask,
+ * issue time and email, and signature is HMAC-SHA256 of key id and payload. Parts are Base64 URL encoded.
+ * First key signs new tokens, all keys verify, so key is rotated by adding new key in front and removing
+ * the old one after token TTL.
+ *
+ * @author i.segodin
+ */
+public class SessionTokenCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final byte VERSION = 1;
+
+    private static final int FIXED_PAYLOAD_SIZE = 1 + Long.BYTES * 3;
+
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+
+    /**
+     * Ordered, first key is current
+     * */
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+
+    private final String currentKeyId;
+
+    private final ThreadLocal<Map<String, Mac>> macs = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    /**
+     * @param keys key id to secret, first is used for signing
+     * */
+    public SessionTokenCodec(Map<String, byte[]> keys) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one session key is required");
+        }
+        keys.forEach((keyId, secret) -> this.keys.put(keyId, new SecretKeySpec(secret, HMAC_ALGORITHM)));
+        this.currentKeyId = keys.keySet().iterator().next();
+    }
+
+    /**
+     * @param keys comma separated list of {@code keyId:base64Secret}
+     * @return key id to secret
+     * */
+    public static Map<String, byte[]> parseKeys(String keys) {
+        Map<String, byte[]> result = new LinkedHashMap<>();
+        for (String key : StringUtils.commaDelimitedListToStringArray(keys)) {
+            String[] parts = StringUtils.split(key.trim(), ":");
+            if (parts == null || parts[0].isEmpty() || parts[0].contains(".")) {
+                throw new IllegalArgumentException("Session key must be keyId:base64Secret");
+            }
+            result.put(parts[0], Base64.getDecoder().decode(parts[1].trim()));
+        }
+        return result;
+    }
+
+    public String encode(SessionToken token) {
+        byte[] email = token.getEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(FIXED_PAYLOAD_SIZE + email.length)
+                .put(VERSION)
+                .putLong(token.getUserId())
+                .putLong(token.getPermissions())
+                .putLong(token.getIssuedAt())
+                .put(email);
+        String signedPart = currentKeyId + "." + encoder.encodeToString(payload.array());
+        return signedPart + "." + encoder.encodeToString(sign(currentKeyId, signedPart));
+    }
+
+    /**
+     * @return token or null when value is malformed, signed with unknown key or signature doesn't match
+     * */
+    public SessionToken decode(String value) {
+        int payloadIdx = value.indexOf('.');
+        int signatureIdx = value.lastIndexOf('.');
+        if (payloadIdx < 1 || signatureIdx <= payloadIdx) {
+            return null;
+        }
+        String keyId = value.substring(0, payloadIdx);
+        if (!keys.containsKey(keyId)) {
+            return null;
+        }
+
+        try {
+            String signedPart = value.substring(0, signatureIdx);
+            byte[] signature = decoder.decode(value.substring(signatureIdx + 1));
+            if (!MessageDigest.isEqual(signature, sign(keyId, signedPart))) {
+                return null;
+            }
+
+            ByteBuffer payload = ByteBuffer.wrap(decoder.decode(value.substring(payloadIdx + 1, signatureIdx)));
+            if (payload.remaining() < FIXED_PAYLOAD_SIZE || payload.get() != VERSION) {
+                return null;
+            }
+            long userId = payload.getLong();
+            long permissions = payload.getLong();
+            long issuedAt = payload.getLong();
+            byte[] email = new byte[payload.remaining()];
+            payload.get(email);
+            return new SessionToken(userId, new String(email, StandardCharsets.UTF_8), permissions, issuedAt);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String keyId, String signedPart) {
+        Mac mac = macs.get().computeIfAbsent(keyId, this::createMac);
+        return mac.doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac createMac(String keyId) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(keys.get(keyId));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't create " + HMAC_ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Content of session cookie
+     * */
+    public static final class SessionToken {
+
+        private final long userId;
+
+        private final String email;
+
+        private final long permissions;
+
+        private final long issuedAt;
+
+        /**
+         * @param issuedAt seconds since epoch
+         * */
+        public SessionToken(long userId, String email, long permissions, long issuedAt) {
+            this.userId = userId;
+            this.email = email;
+            this.permissions = permissions;
+            this.issuedAt = issuedAt;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public long getPermissions() {
+            return permissions;
+        }
+
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+    }
+}
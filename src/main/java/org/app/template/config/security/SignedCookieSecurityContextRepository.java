@@ -0,0 +1,166 @@
+package org.app.template.config.security;
+
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.app.template.config.security.SessionTokenCodec.SessionToken;
+import org.app.template.data.domain.User;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SaveContextOnUpdateOrErrorResponseWrapper;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Keeps security context in signed cookie instead of HTTP session, so any node can serve any request.
+ * Principal is rebuilt from the token as {@link User} with id, email and permission mask, without database or session.
+ * Token older than half of TTL is re-issued with permissions of freshly loaded user details (cached by {@link UserDetailsService}).
+ * Cookie is written when response is committed, like {@code HttpSessionSecurityContextRepository} does.
+ *
+ * @author i.segodin
+ */
+public class SignedCookieSecurityContextRepository implements SecurityContextRepository {
+
+    private static final String TOKEN_ATTRIBUTE = SignedCookieSecurityContextRepository.class.getName() + ".TOKEN";
+
+    private final SessionTokenCodec codec;
+
+    private final UserDetailsService userDetailsService;
+
+    private final String cookieName;
+
+    private final long ttl;
+
+    /**
+     * @param ttl token lifetime in seconds
+     * */
+    public SignedCookieSecurityContextRepository(SessionTokenCodec codec, UserDetailsService userDetailsService, String cookieName, long ttl) {
+        this.codec = codec;
+        this.userDetailsService = userDetailsService;
+        this.cookieName = cookieName;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        HttpServletRequest request = requestResponseHolder.getRequest();
+        requestResponseHolder.setResponse(new SaveToCookieResponseWrapper(request, requestResponseHolder.getResponse()));
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        SessionToken token = readToken(request);
+        if (token != null) {
+            User user = new User();
+            user.setId(token.getUserId());
+            user.setEmail(token.getEmail());
+            user.setPermissions(token.getPermissions());
+            context.setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            request.setAttribute(TOKEN_ATTRIBUTE, token);
+        }
+        return context;
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        SaveToCookieResponseWrapper responseWrapper = WebUtils.getNativeResponse(response, SaveToCookieResponseWrapper.class);
+        if (responseWrapper == null) {
+            throw new IllegalStateException("Response is not wrapped by " + getClass().getSimpleName());
+        }
+        if (!responseWrapper.isContextSaved()) {
+            responseWrapper.saveContext(context);
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return readToken(request) != null;
+    }
+
+    private SessionToken readToken(HttpServletRequest request) {
+        Object token = request.getAttribute(TOKEN_ATTRIBUTE);
+        if (token != null) {
+            return (SessionToken) token;
+        }
+        Cookie cookie = WebUtils.getCookie(request, cookieName);
+        if (cookie == null) {
+            return null;
+        }
+        SessionToken sessionToken = codec.decode(cookie.getValue());
+        if (sessionToken == null || getNow() - sessionToken.getIssuedAt() >= ttl) {
+            return null;
+        }
+        return sessionToken;
+    }
+
+    private void writeCookie(HttpServletRequest request, HttpServletResponse response, String value, int maxAge) {
+        Cookie cookie = new Cookie(cookieName, value);
+        cookie.setPath(request.getContextPath().isEmpty() ? "/" : request.getContextPath());
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge(maxAge);
+        response.addCookie(cookie);
+    }
+
+    private static long getNow() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+
+    private class SaveToCookieResponseWrapper extends SaveContextOnUpdateOrErrorResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private SaveToCookieResponseWrapper(HttpServletRequest request, HttpServletResponse response) {
+            super(response, true);
+            this.request = request;
+        }
+
+        @Override
+        protected void saveContext(SecurityContext context) {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            SessionToken token = (SessionToken) request.getAttribute(TOKEN_ATTRIBUTE);
+            Authentication authentication = context.getAuthentication();
+
+            if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+                // logout or expired token
+                if (token != null || WebUtils.getCookie(request, cookieName) != null) {
+                    writeCookie(request, response, "", 0);
+                }
+                return;
+            }
+
+            if (token != null && token.getEmail().equals(authentication.getName()) && getNow() - token.getIssuedAt() < ttl / 2) {
+                return;
+            }
+
+            User user = toUser(authentication);
+            if (user != null) {
+                String value = codec.encode(new SessionToken(user.getId(), user.getEmail(), user.getPermissions(), getNow()));
+                writeCookie(request, response, value, (int) ttl);
+            }
+        }
+
+        /**
+         * @return principal of fresh authentication or reloaded user details for token refresh
+         * */
+        private User toUser(Authentication authentication) {
+            Object principal = authentication.getPrincipal();
+            if (principal instanceof User && authentication.getCredentials() == null && ((User) principal).getPassword() == null) {
+                try {
+                    UserDetails userDetails = userDetailsService.loadUserByUsername(authentication.getName());
+                    return userDetails instanceof User ? (User) userDetails : null;
+                } catch (UsernameNotFoundException e) {
+                    return null;
+                }
+            }
+            return principal instanceof User ? (User) principal : null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.app.template.config.security;
+
+import java.util.Collection;
+
+import org.app.template.metrics.timing.RequestTimeline;
+import org.springframework.security.access.AccessDecisionManager;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Adds time of method security checks ({@code @RequiresPermission} and {@code @PreAuthorize}) to {@link RequestTimeline}.
+ *
+ * @author i.segodin
+ */
+public class TimedAccessDecisionManager implements AccessDecisionManager {
+
+    private final AccessDecisionManager delegate;
+
+    public TimedAccessDecisionManager(AccessDecisionManager delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void decide(Authentication authentication, Object object, Collection<ConfigAttribute> configAttributes)
+            throws AccessDeniedException, InsufficientAuthenticationException {
+        long start = RequestTimeline.begin();
+        try {
+            delegate.decide(authentication, object, configAttributes);
+        } finally {
+            RequestTimeline.end(RequestTimeline.PHASE_ACL, start);
+        }
+    }
+
+    @Override
+    public boolean supports(ConfigAttribute attribute) {
+        return delegate.supports(attribute);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+}
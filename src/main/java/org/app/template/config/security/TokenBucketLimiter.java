@@ -0,0 +1,131 @@
+package org.app.template.config.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by string (client IP, account), stored in independent stripes.
+ * Every bucket is a single {@link AtomicLong} with theoretical arrival time (GCRA): request is admitted when
+ * arrival time is not further than burst in the future, so taking a token is one CAS and refill needs no timer.
+ * Bucket, which arrival time is in the past, is full, so it is the same as absent bucket and may be evicted.
+ * Every stripe holds at most {@code maxKeys / stripes} buckets. When stripe is full, its idle buckets are evicted,
+ * and when none is idle, bucket with the earliest arrival time is, so new client is never rejected for lack of room:
+ * evicted client gets full bucket again, which only matters when key flood exceeds {@code maxKeys}.
+ *
+ * @author i.segodin
+ */
+public class TokenBucketLimiter {
+
+    private final Map<String, AtomicLong>[] stripes;
+
+    private final int mask;
+
+    private final int maxKeysPerStripe;
+
+    /**
+     * Nanoseconds per token
+     * */
+    private final long emissionInterval;
+
+    /**
+     * Nanoseconds of burst tolerance
+     * */
+    private final long burstTolerance;
+
+    /**
+     * @param permitsPerMinute sustained rate
+     * @param burst number of requests, which may come at once
+     * @param maxKeys maximum number of buckets
+     * */
+    @SuppressWarnings("unchecked")
+    public TokenBucketLimiter(int permitsPerMinute, int burst, int maxKeys) {
+        int stripeCount = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 4, 2) - 1) << 1;
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.mask = stripeCount - 1;
+        this.maxKeysPerStripe = Math.max(maxKeys / stripeCount, 1);
+        this.emissionInterval = TimeUnit.MINUTES.toNanos(1) / Math.max(permitsPerMinute, 1);
+        this.burstTolerance = emissionInterval * Math.max(burst - 1, 0);
+    }
+
+    /**
+     * @param key bucket key
+     * @return true when request is admitted, false when bucket is empty
+     * */
+    public boolean tryAcquire(String key) {
+        long now = System.nanoTime();
+        Map<String, AtomicLong> stripe = stripes[spread(key.hashCode()) & mask];
+        AtomicLong arrivalTime = stripe.get(key);
+        if (arrivalTime == null) {
+            if (stripe.size() >= maxKeysPerStripe && evictIdle(stripe, now) == 0) {
+                evictEarliest(stripe, now);
+            }
+            arrivalTime = stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = arrivalTime.get();
+            long start = current - now > 0 ? current : now;
+            if (start - now > burstTolerance) {
+                return false;
+            }
+            if (arrivalTime.compareAndSet(current, start + emissionInterval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return nanoseconds until next token for the key, 0 when token is available
+     * */
+    public long getWaitNanos(String key) {
+        AtomicLong arrivalTime = stripes[spread(key.hashCode()) & mask].get(key);
+        if (arrivalTime == null) {
+            return 0;
+        }
+        return Math.max(arrivalTime.get() - System.nanoTime() - burstTolerance, 0);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private int evictIdle(Map<String, AtomicLong> stripe, long now) {
+        int evicted = 0;
+        for (Iterator<AtomicLong> iterator = stripe.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().get() - now <= 0) {
+                iterator.remove();
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private void evictEarliest(Map<String, AtomicLong> stripe, long now) {
+        Map.Entry<String, AtomicLong> earliest = null;
+        long earliestArrival = 0;
+        for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+            long arrival = entry.getValue().get() - now;
+            if (earliest == null || arrival < earliestArrival) {
+                earliest = entry;
+                earliestArrival = arrival;
+            }
+        }
+        if (earliest != null) {
+            stripe.remove(earliest.getKey(), earliest.getValue());
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,123 @@
+package org.app.template.config.startup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Liquibase, which doesn't parse changelog and doesn't evaluate preconditions, when changelog files are the same
+ * as after last successful migration. Checksum is SHA-256 of all XML files next to master changelog, contexts and labels,
+ * and is kept in {@code changelog_checksum} table.
+ *
+ * @author i.segodin
+ */
+public class ChecksumSkippingLiquibase extends SpringLiquibase {
+
+    private static final Log logger = LogFactory.getLog(ChecksumSkippingLiquibase.class);
+
+    private static final String CHECKSUM_NAME = "changelog";
+
+    private static final String SELECT_SQL = "select checksum from changelog_checksum where name = ?";
+
+    private static final String UPDATE_SQL = "update changelog_checksum set checksum = ?, updated = ? where name = ?";
+
+    private static final String INSERT_SQL = "insert into changelog_checksum (checksum, updated, name) values (?, ?, ?)";
+
+    private final boolean skipUnchanged;
+
+    /**
+     * @param skipUnchanged when false, behaves as {@link SpringLiquibase}
+     * */
+    public ChecksumSkippingLiquibase(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        String checksum = skipUnchanged && !isDropFirst() ? computeChecksum() : null;
+        if (checksum != null && checksum.equals(readChecksum())) {
+            logger.info("Liquibase changelog is unchanged, migration is skipped");
+            return;
+        }
+
+        super.afterPropertiesSet();
+
+        if (checksum != null) {
+            writeChecksum(checksum);
+        }
+    }
+
+    /**
+     * @return checksum or null if changelog files can't be read, then migration runs as usual
+     * */
+    private String computeChecksum() {
+        String changeLog = getChangeLog();
+        String changeLogFolder = changeLog.substring(0, changeLog.lastIndexOf('/') + 1);
+        if (changeLogFolder.startsWith(ResourceLoader.CLASSPATH_URL_PREFIX)) {
+            changeLogFolder = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + changeLogFolder.substring(ResourceLoader.CLASSPATH_URL_PREFIX.length());
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Resource[] resources = new PathMatchingResourcePatternResolver(getClass().getClassLoader()).getResources(changeLogFolder + "**/*.xml");
+            Arrays.sort(resources, Comparator.comparing(Resource::getFilename, Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (Resource resource : resources) {
+                digest.update(String.valueOf(resource.getFilename()).getBytes(StandardCharsets.UTF_8));
+                try (InputStream inputStream = resource.getInputStream()) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            digest.update(String.valueOf(getContexts()).getBytes(StandardCharsets.UTF_8));
+            digest.update(String.valueOf(getLabels()).getBytes(StandardCharsets.UTF_8));
+            StringBuilder checksum = new StringBuilder();
+            for (byte b : digest.digest()) {
+                checksum.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return checksum.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("Failure computing Liquibase changelog checksum", e);
+            return null;
+        }
+    }
+
+    private String readChecksum() {
+        try {
+            return new JdbcTemplate(getDataSource()).query(SELECT_SQL, rs -> rs.next() ? rs.getString(1) : null, CHECKSUM_NAME);
+        } catch (DataAccessException e) {
+            // table is created by first migration
+            return null;
+        }
+    }
+
+    private void writeChecksum(String checksum) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(getDataSource());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            if (jdbcTemplate.update(UPDATE_SQL, checksum, now, CHECKSUM_NAME) == 0) {
+                jdbcTemplate.update(INSERT_SQL, checksum, now, CHECKSUM_NAME);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Failure saving Liquibase changelog checksum", e);
+        }
+    }
+}
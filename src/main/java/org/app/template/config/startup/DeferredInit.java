@@ -0,0 +1,18 @@
+package org.app.template.config.startup;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bean, which is not needed to serve first requests. With {@code spring.config.fastStartup} it is created on first use.
+ *
+ * @author i.segodin
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DeferredInit {
+}
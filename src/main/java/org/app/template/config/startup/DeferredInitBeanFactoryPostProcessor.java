@@ -0,0 +1,41 @@
+package org.app.template.config.startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes beans annotated with {@link DeferredInit} lazy, when {@code spring.config.fastStartup} is on.
+ * Annotation is read from bean definition metadata, so classes are not loaded.
+ *
+ * @author i.segodin
+ */
+@Component
+public class DeferredInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private boolean fastStartup;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        fastStartup = environment.getProperty("spring.config.fastStartup", Boolean.class, false);
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        if (!fastStartup) {
+            return;
+        }
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (beanDefinition instanceof AnnotatedBeanDefinition
+                    && ((AnnotatedBeanDefinition) beanDefinition).getMetadata().hasAnnotation(DeferredInit.class.getName())) {
+                beanDefinition.setLazyInit(true);
+            }
+        }
+    }
+}
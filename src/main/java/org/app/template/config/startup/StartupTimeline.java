@@ -0,0 +1,123 @@
+package org.app.template.config.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.event.ApplicationPreparedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartingEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Startup report: duration of application phases (JVM, environment, context preparation, context refresh)
+ * and beans with longest creation time. Bean time is measured from instantiation to end of initialization,
+ * self time excludes beans created as its dependencies. Registered on {@link org.springframework.boot.SpringApplication},
+ * report is logged when application is ready, top beans count is {@code spring.config.startupReport.topBeans}.
+ *
+ * @author i.segodin
+ */
+public class StartupTimeline implements ApplicationListener<SpringApplicationEvent> {
+
+    private static final Log logger = LogFactory.getLog(StartupTimeline.class);
+
+    private final List<String> phases = new ArrayList<>();
+
+    private final Map<String, long[]> beanTimes = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Deque<BeanCreation>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private long phaseStart;
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationStartingEvent) {
+            phaseStart = System.nanoTime();
+            phases.add("jvm " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            endPhase("environment");
+        } else if (event instanceof ApplicationPreparedEvent) {
+            endPhase("context preparation");
+            ((ApplicationPreparedEvent) event).getApplicationContext().getBeanFactory().addBeanPostProcessor(new BeanTimer());
+        } else if (event instanceof ApplicationReadyEvent) {
+            endPhase("context refresh");
+            int topBeans = ((ApplicationReadyEvent) event).getApplicationContext().getEnvironment()
+                    .getProperty("spring.config.startupReport.topBeans", Integer.class, 20);
+            logger.info(buildReport(topBeans));
+            beanTimes.clear();
+        }
+    }
+
+    private void endPhase(String phase) {
+        long now = System.nanoTime();
+        phases.add(phase + " " + TimeUnit.NANOSECONDS.toMillis(now - phaseStart) + " ms");
+        phaseStart = now;
+    }
+
+    private String buildReport(int topBeans) {
+        StringBuilder report = new StringBuilder("Startup timeline: ").append(String.join(", ", phases));
+        report.append(". Up in ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms");
+
+        List<Map.Entry<String, long[]>> beans = new ArrayList<>(beanTimes.entrySet());
+        beans.sort((first, second) -> Long.compare(second.getValue()[1], first.getValue()[1]));
+        report.append("\nSlowest beans (self / total ms):");
+        for (Map.Entry<String, long[]> bean : beans.subList(0, Math.min(topBeans, beans.size()))) {
+            report.append("\n  ").append(bean.getKey()).append(' ')
+                    .append(TimeUnit.NANOSECONDS.toMillis(bean.getValue()[1])).append(" / ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(bean.getValue()[0]));
+        }
+        return report.toString();
+    }
+
+    private static final class BeanCreation {
+
+        private final String beanName;
+
+        private final long start = System.nanoTime();
+
+        private long dependencies;
+
+        private BeanCreation(String beanName) {
+            this.beanName = beanName;
+        }
+    }
+
+    /**
+     * Measures creation of beans, which are created after context is prepared
+     * */
+    private class BeanTimer extends InstantiationAwareBeanPostProcessorAdapter {
+
+        @Override
+        public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+            creations.get().push(new BeanCreation(beanName));
+            return null;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            Deque<BeanCreation> stack = creations.get();
+            // objects of factory beans are post-processed without instantiation
+            if (stack.isEmpty() || !stack.peek().beanName.equals(beanName)) {
+                return bean;
+            }
+            BeanCreation creation = stack.pop();
+            long total = System.nanoTime() - creation.start;
+            if (!stack.isEmpty()) {
+                stack.peek().dependencies += total;
+            }
+            beanTimes.put(beanName, new long[]{total, total - creation.dependencies});
+            return bean;
+        }
+    }
+}
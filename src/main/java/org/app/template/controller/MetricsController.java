@@ -0,0 +1,134 @@
+package org.app.template.controller;
+
+import org.app.template.acl.Permission;
+import org.app.template.acl.RequiresPermission;
+import org.app.template.config.startup.DeferredInit;
+import org.app.template.metrics.LatencyHistogram;
+import org.app.template.metrics.Metric;
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms and metrics, registered by subsystems in {@link MetricsRegistry}, in JSON and Prometheus text format.
+ *
+ * @author isegodin
+ */
+@DeferredInit
+@Controller
+@RequestMapping("/metrics")
+public class MetricsController {
+
+    private static final String PROMETHEUS_PREFIX = "app_";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @RequestMapping(value = "", produces = "application/json")
+    @RequiresPermission(Permission.VIEW_METRICS)
+    @ResponseBody
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        Map<String, Object> requests = new LinkedHashMap<>();
+        metricsRegistry.getRequestTimers().forEach((name, histogram) -> requests.put(name, toMap(histogram)));
+        metrics.put("requests", requests);
+
+        Map<String, Object> components = new LinkedHashMap<>();
+        metricsRegistry.getTimers().forEach((name, histogram) -> components.put(name, toMap(histogram)));
+        metrics.put("components", components);
+
+        for (Metric metric : metricsRegistry.getMetrics()) {
+            Map<String, Object> samples = metric.getSamples();
+            if (metric.getLabel() == null) {
+                metrics.put(metric.getName(), toValue(samples.get(Metric.NO_LABEL)));
+            } else {
+                Map<String, Object> values = new LinkedHashMap<>();
+                samples.forEach((labelValue, value) -> values.put(labelValue, toValue(value)));
+                metrics.put(metric.getName(), values);
+            }
+        }
+        return metrics;
+    }
+
+    @RequestMapping(value = "/prometheus", produces = "text/plain; version=0.0.4; charset=utf-8")
+    @RequiresPermission(Permission.VIEW_METRICS)
+    @ResponseBody
+    public String getPrometheusMetrics() {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# TYPE app_request_latency_seconds summary\n");
+        metricsRegistry.getRequestTimers().forEach((name, histogram) -> appendSummary(out, "app_request_latency_seconds", "mapping", name, histogram));
+
+        out.append("# TYPE app_component_latency_seconds summary\n");
+        metricsRegistry.getTimers().forEach((name, histogram) -> appendSummary(out, "app_component_latency_seconds", "component", name, histogram));
+
+        // each family is one group after its TYPE line
+        for (Metric metric : metricsRegistry.getMetrics()) {
+            String name = PROMETHEUS_PREFIX + metric.getName();
+            out.append("# TYPE ").append(name).append(' ').append(metric.getType().name().toLowerCase()).append('\n');
+            metric.getSamples().forEach((labelValue, value) -> {
+                if (value instanceof LatencyHistogram) {
+                    appendSummary(out, name, metric.getLabel(), labelValue, (LatencyHistogram) value);
+                } else {
+                    appendSample(out, name, metric.getLabel(), labelValue, value);
+                }
+            });
+        }
+
+        return out.toString();
+    }
+
+    private Object toValue(Object value) {
+        return value instanceof LatencyHistogram ? toMap((LatencyHistogram) value) : value;
+    }
+
+    private Map<String, Object> toMap(LatencyHistogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getCount());
+        values.put("meanMs", histogram.getCount() > 0 ? histogram.getSumNanos() / 1e6 / histogram.getCount() : 0);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            values.put(QUANTILE_NAMES[i] + "Ms", histogram.getValueAtQuantile(QUANTILES[i], TimeUnit.MILLISECONDS));
+        }
+        values.put("maxMs", histogram.getMaxNanos() / 1e6);
+        return values;
+    }
+
+    private void appendSummary(StringBuilder out, String metric, String label, String name, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            out.append(metric).append('{').append(labels(label, name)).append(label != null ? "," : "").append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtQuantile(quantile, TimeUnit.SECONDS)).append('\n');
+        }
+        appendSample(out, metric + "_count", label, name, histogram.getCount());
+        appendSample(out, metric + "_sum", label, name, histogram.getSumNanos() / 1e9);
+    }
+
+    private void appendSample(StringBuilder out, String metric, String label, String name, Object value) {
+        out.append(metric);
+        if (label != null) {
+            out.append('{').append(labels(label, name)).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    /**
+     * @return label pair or empty string for metric without label
+     * */
+    private String labels(String label, String name) {
+        return label != null ? label + "=\"" + escape(name) + "\"" : "";
+    }
+
+    private String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
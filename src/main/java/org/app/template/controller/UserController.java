@@ -1,13 +1,24 @@
 package org.app.template.controller;
 
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import org.app.template.acl.Permission;
+import org.app.template.acl.RequiresPermission;
+import org.app.template.data.domain.QUser;
+import org.app.template.data.repository.KeysetPage;
 import org.app.template.data.repository.UserRepository;
+import org.app.template.data.service.UserSearchService;
+import org.app.template.data.view.UserView;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,15 +28,56 @@ import java.util.Map;
 @RequestMapping("/user")
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSearchService userSearchService;
+
     @RequestMapping("/list")
-    @PreAuthorize("@userAcl.canViewUserList")
-    public ModelAndView getUserList() {
+    @RequiresPermission(Permission.VIEW_USER_LIST)
+    public ModelAndView getUserList(@RequestParam(value = "after", required = false) Long afterId,
+                                    @RequestParam(value = "size", defaultValue = "50") int size,
+                                    @RequestParam(value = "email", required = false) String email,
+                                    @RequestParam(value = "name", required = false) String name) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        KeysetPage<UserView> page = userRepository.findPage(getUserFilter(email, name), afterId, pageSize);
+
         Map<String, Object> ctx = new HashMap<>();
-        ctx.put("users", userRepository.findAll());
+        ctx.put("users", page.getItems());
+        ctx.put("nextAfterId", page.getNextAfterId());
+        ctx.put("size", pageSize);
+        ctx.put("email", email);
+        ctx.put("name", name);
 
         return new ModelAndView("pages/user_list", ctx);
     }
+
+    @RequestMapping("/search")
+    @RequiresPermission(Permission.VIEW_USER_LIST)
+    @ResponseBody
+    public List<UserView> searchUsers(@RequestParam("q") String query,
+                                      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<Long> ids = userSearchService.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT)));
+        return userRepository.findViewsByIds(ids);
+    }
+
+    /**
+     * Prefix filters, so index on email can be used
+     * */
+    private Predicate getUserFilter(String email, String name) {
+        QUser user = QUser.user;
+        BooleanBuilder filter = new BooleanBuilder();
+        if (StringUtils.hasText(email)) {
+            filter.and(user.email.startsWith(email.trim()));
+        }
+        if (StringUtils.hasText(name)) {
+            filter.and(user.firstName.startsWith(name.trim()).or(user.secondName.startsWith(name.trim())));
+        }
+        return filter.getValue();
+    }
 }
@@ -0,0 +1,101 @@
+package org.app.template.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.app.template.acl.Permission;
+import org.app.template.acl.RequiresPermission;
+import org.app.template.config.startup.DeferredInit;
+import org.app.template.data.domain.User;
+import org.app.template.data.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Streams all users as CSV or NDJSON. Rows are read with forward-only cursor and written with Jackson streaming generator,
+ * so memory usage doesn't depend on number of users.
+ *
+ * @author isegodin
+ */
+@DeferredInit
+@Controller
+@RequestMapping("/user")
+public class UserExportController {
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+            .addNumberColumn("id")
+            .addColumn("firstName")
+            .addColumn("secondName")
+            .addColumn("email")
+            .build()
+            .withHeader();
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @RequestMapping("/export.csv")
+    @RequiresPermission(Permission.VIEW_USER_LIST)
+    public void exportCsv(HttpServletResponse response) throws IOException {
+        prepareResponse(response, "text/csv;charset=UTF-8", "users.csv");
+
+        CsvGenerator generator = csvMapper.getFactory().createGenerator(response.getOutputStream());
+        generator.setSchema(CSV_SCHEMA);
+        writeUsers(generator);
+    }
+
+    @RequestMapping("/export.ndjson")
+    @RequiresPermission(Permission.VIEW_USER_LIST)
+    public void exportNdjson(HttpServletResponse response) throws IOException {
+        prepareResponse(response, "application/x-ndjson;charset=UTF-8", "users.ndjson");
+
+        OutputStream outputStream = response.getOutputStream();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        writeUsers(generator);
+        outputStream.write('\n');
+    }
+
+    private void prepareResponse(HttpServletResponse response, String contentType, String fileName) {
+        response.setContentType(contentType);
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+    }
+
+    /**
+     * Same field names for both formats, csv generator maps them to schema columns
+     * */
+    private void writeUsers(JsonGenerator generator) throws IOException {
+        try {
+            userRepository.forEachUser(null, user -> writeUser(generator, user));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        generator.flush();
+    }
+
+    private void writeUser(JsonGenerator generator, User user) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", user.getId());
+            generator.writeStringField("firstName", user.getFirstName());
+            generator.writeStringField("secondName", user.getSecondName());
+            generator.writeStringField("email", user.getEmail());
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.app.template.controller;
+
+import org.app.template.acl.Permission;
+import org.app.template.acl.RequiresPermission;
+import org.app.template.config.startup.DeferredInit;
+import org.app.template.data.service.UserImportResult;
+import org.app.template.data.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Bulk import of users, request body is CSV file, which is read as a stream.
+ *
+ * @author isegodin
+ */
+@DeferredInit
+@Controller
+@RequestMapping("/user")
+public class UserImportController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @RequestMapping(value = "/import", method = RequestMethod.POST, consumes = "text/csv")
+    @RequiresPermission(Permission.IMPORT_USERS)
+    @ResponseBody
+    public UserImportResult importUsers(HttpServletRequest request) throws IOException {
+        return userImportService.importUsers(request.getInputStream());
+    }
+}
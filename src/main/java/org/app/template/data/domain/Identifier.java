@@ -1,16 +1,31 @@
 package org.app.template.data.domain;
 
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.Column;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
 
+/**
+ * Ids are allocated by pooled table generator (one row per entity table in id_generator), in blocks of 50,
+ * so Hibernate can batch inserts. IDENTITY generation disables JDBC insert batching.
+ */
 @MappedSuperclass
 public abstract class Identifier {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "pooled")
+    @GenericGenerator(name = "pooled", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+            @Parameter(name = "table_name", value = "id_generator"),
+            @Parameter(name = "segment_column_name", value = "sequence_name"),
+            @Parameter(name = "value_column_name", value = "next_val"),
+            @Parameter(name = "prefer_entity_table_as_segment_value", value = "true"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @Column(nullable = false, unique = true)
     private Long id;
 
@@ -1,13 +1,17 @@
 package org.app.template.data.domain;
 
+import org.app.template.acl.Permission;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
+import javax.persistence.Transient;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 @Entity
 @Table(name = "user")
@@ -25,10 +29,34 @@ public class User extends Identifier  implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    /**
+     * Bits of {@link Permission}, loaded with user details
+     * */
+    @Transient
+    private long permissions;
+
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.emptyList();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (Permission permission : Permission.values()) {
+            if (permission.isGranted(permissions)) {
+                authorities.add(new SimpleGrantedAuthority(permission.name()));
+            }
+        }
+        return authorities;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return permission.isGranted(permissions);
+    }
+
+    public long getPermissions() {
+        return permissions;
+    }
+
+    public void setPermissions(long permissions) {
+        this.permissions = permissions;
     }
 
     @Override
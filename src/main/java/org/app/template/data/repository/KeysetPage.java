@@ -0,0 +1,29 @@
+package org.app.template.data.repository;
+
+import java.util.List;
+
+/**
+ * Page of keyset (seek) pagination: items ordered by id and id to continue after.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> items;
+
+    private final Long nextAfterId;
+
+    public KeysetPage(List<T> items, Long nextAfterId) {
+        this.items = items;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return id of last item, or null when this is the last page
+     * */
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+}
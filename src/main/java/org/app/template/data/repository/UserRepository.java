@@ -1,10 +1,39 @@
 package org.app.template.data.repository;
 
 import org.app.template.data.domain.User;
+import org.app.template.data.service.UserService;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
 import org.springframework.data.repository.CrudRepository;
 
-public interface UserRepository extends CrudRepository<User, Long>, QueryDslPredicateExecutor<User> {
+/**
+ * Modifying methods evict whole user details cache, because email of saved user may have changed.
+ */
+public interface UserRepository extends CrudRepository<User, Long>, QueryDslPredicateExecutor<User>, UserRepositoryCustom {
 
     User findByEmail(String email);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    <S extends User> S save(S entity);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    <S extends User> Iterable<S> save(Iterable<S> entities);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    void delete(Long id);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    void delete(User entity);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    void delete(Iterable<? extends User> entities);
+
+    @Override
+    @CacheEvict(value = UserService.USER_DETAILS_CACHE, allEntries = true)
+    void deleteAll();
 }
@@ -0,0 +1,75 @@
+package org.app.template.data.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.querydsl.core.types.Predicate;
+import org.app.template.data.domain.User;
+import org.app.template.data.view.UserView;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Read methods returning {@link UserView} select only displayed columns and run in read-only transactions,
+ * so Hibernate doesn't flush or dirty-check.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Name of role, which every new user gets
+     * */
+    String DEFAULT_ROLE = "USER";
+
+    /**
+     * Keyset pagination over id, doesn't use offset and doesn't count rows.
+     *
+     * @param filter optional predicate
+     * @param afterId id of last user from previous page or null for first page
+     * @param size page size
+     * @return users with id greater than afterId, ordered by id
+     * */
+    @Transactional(readOnly = true)
+    KeysetPage<UserView> findPage(Predicate filter, Long afterId, int size);
+
+    /**
+     * @param predicate predicate, which matches at most one user
+     * @return user or null
+     * */
+    @Transactional(readOnly = true)
+    UserView findView(Predicate predicate);
+
+    /**
+     * @param ids user ids
+     * @return users ordered by id
+     * */
+    @Transactional(readOnly = true)
+    List<UserView> findViewsByIds(Collection<Long> ids);
+
+    /**
+     * Streams users ordered by id with forward-only cursor, so memory usage doesn't depend on number of users.
+     * Each user is detached after consumer is called.
+     *
+     * @param filter optional predicate
+     * @param consumer called for each user
+     * */
+    @Transactional(readOnly = true)
+    void forEachUser(Predicate filter, Consumer<User> consumer);
+
+    /**
+     * Permissions of all roles of user, selected with single join.
+     *
+     * @param userId user id
+     * @return mask of {@link org.app.template.acl.Permission}
+     * */
+    @Transactional(readOnly = true)
+    long findPermissionMask(Long userId);
+
+    /**
+     * Gives new users {@link #DEFAULT_ROLE} with one JDBC batch. Code, which inserts users, calls it after flush
+     * in the same transaction. User details cache is not evicted, because users, which were not found, are not cached.
+     *
+     * @param userIds ids of inserted users
+     * */
+    @Transactional
+    void assignDefaultRole(Collection<Long> userIds);
+}
@@ -0,0 +1,166 @@
+package org.app.template.data.repository;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ConstructorExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.app.template.acl.Permission;
+import org.app.template.data.domain.QUser;
+import org.app.template.data.domain.User;
+import org.app.template.data.view.UserView;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Custom part of {@link UserRepository}, picked up by Spring Data by name.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    /**
+     * Selects only displayed columns, so no entity is hydrated or added to persistence context
+     * */
+    private static final ConstructorExpression<UserView> USER_VIEW = Projections.constructor(UserView.class,
+            QUser.user.id, QUser.user.firstName, QUser.user.secondName, QUser.user.email);
+
+    private static final String PERMISSION_CODES_SQL = "select distinct p.code from user_role ur"
+            + " join role_permission rp on rp.role_id = ur.role_id"
+            + " join permission p on p.id = rp.permission_id"
+            + " where ur.user_id = ?";
+
+    private static final String DEFAULT_ROLE_SQL = "insert into user_role (user_id, role_id) select ?, id from role where name = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * MySQL driver streams rows one by one for fetch size Integer.MIN_VALUE, for this statement only, other queries
+     * keep buffered results. Connection runs no other statement until results are closed, so consumers must not query.
+     * Other databases need positive value
+     * */
+    @Value("${spring.config.userStreamFetchSize:" + Integer.MIN_VALUE + "}")
+    private int streamFetchSize;
+
+    @Override
+    public KeysetPage<UserView> findPage(Predicate filter, Long afterId, int size) {
+        QUser user = QUser.user;
+
+        BooleanBuilder where = new BooleanBuilder();
+        if (filter != null) {
+            where.and(filter);
+        }
+        if (afterId != null) {
+            where.and(user.id.gt(afterId));
+        }
+
+        /**
+         * One extra row tells if there is next page
+         * */
+        List<UserView> users = new JPAQueryFactory(entityManager)
+                .select(USER_VIEW)
+                .from(user)
+                .where(where)
+                .orderBy(user.id.asc())
+                .limit(size + 1)
+                .fetch();
+
+        if (users.size() > size) {
+            List<UserView> pageUsers = new ArrayList<>(users.subList(0, size));
+            return new KeysetPage<>(pageUsers, pageUsers.get(size - 1).getId());
+        }
+        return new KeysetPage<>(users, null);
+    }
+
+    @Override
+    public UserView findView(Predicate predicate) {
+        return new JPAQueryFactory(entityManager)
+                .select(USER_VIEW)
+                .from(QUser.user)
+                .where(predicate)
+                .fetchOne();
+    }
+
+    @Override
+    public List<UserView> findViewsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        QUser user = QUser.user;
+        return new JPAQueryFactory(entityManager)
+                .select(USER_VIEW)
+                .from(user)
+                .where(user.id.in(ids))
+                .orderBy(user.id.asc())
+                .fetch();
+    }
+
+    @Override
+    public void forEachUser(Predicate filter, Consumer<User> consumer) {
+        QUser user = QUser.user;
+
+        BooleanBuilder where = new BooleanBuilder();
+        if (filter != null) {
+            where.and(filter);
+        }
+
+        Query query = new JPAQueryFactory(entityManager)
+                .selectFrom(user)
+                .where(where)
+                .orderBy(user.id.asc())
+                .createQuery()
+                .unwrap(Query.class);
+
+        Session session = entityManager.unwrap(Session.class);
+        ScrollableResults results = query
+                .setFetchSize(streamFetchSize)
+                .setReadOnly(true)
+                .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                User row = (User) results.get(0);
+                consumer.accept(row);
+                session.evict(row);
+            }
+        } finally {
+            results.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public long findPermissionMask(Long userId) {
+        List<String> codes = entityManager.createNativeQuery(PERMISSION_CODES_SQL)
+                .setParameter(1, userId)
+                .getResultList();
+        return Permission.toMask(codes);
+    }
+
+    @Override
+    public void assignDefaultRole(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(DEFAULT_ROLE_SQL)) {
+                for (Long userId : userIds) {
+                    statement.setLong(1, userId);
+                    statement.setString(2, DEFAULT_ROLE);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+}
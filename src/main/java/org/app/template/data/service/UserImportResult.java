@@ -0,0 +1,91 @@
+package org.app.template.data.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of bulk user import.
+ */
+public class UserImportResult {
+
+    private final long imported;
+
+    private final long elapsedMillis;
+
+    private final Errors errors;
+
+    public UserImportResult(long imported, long elapsedMillis, Errors errors) {
+        this.imported = imported;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getUsersPerSecond() {
+        return elapsedMillis > 0 ? imported * 1000.0 / elapsedMillis : imported;
+    }
+
+    /**
+     * @return number of skipped rows
+     * */
+    public long getRejected() {
+        return errors.rejected;
+    }
+
+    /**
+     * @return errors of first {@link Errors#MAX_REPORTED} skipped rows
+     * */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors.rowErrors);
+    }
+
+    /**
+     * Skipped rows, collected during import. Only first {@link #MAX_REPORTED} are kept, the rest are counted.
+     * */
+    public static class Errors {
+
+        public static final int MAX_REPORTED = 1000;
+
+        private final List<RowError> rowErrors = new ArrayList<>();
+
+        private long rejected;
+
+        public void add(long row, String message) {
+            rejected++;
+            if (rowErrors.size() < MAX_REPORTED) {
+                rowErrors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    public static class RowError {
+
+        private final long row;
+
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        /**
+         * @return line number in CSV, header is line 1
+         * */
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
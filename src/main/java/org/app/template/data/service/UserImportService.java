@@ -0,0 +1,17 @@
+package org.app.template.data.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    /**
+     * Imports users from CSV with header: firstName,secondName,email,password. Input is read as a stream,
+     * each batch is committed in its own transaction. Rows with blank column or with email, which is already used,
+     * are skipped.
+     *
+     * @param csv CSV content
+     * @return number of imported users, throughput and errors of skipped rows
+     * */
+    UserImportResult importUsers(InputStream csv) throws IOException;
+}
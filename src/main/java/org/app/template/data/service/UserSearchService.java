@@ -0,0 +1,15 @@
+package org.app.template.data.service;
+
+import java.util.List;
+
+public interface UserSearchService {
+
+    /**
+     * Prefix search over first name, second name, full name and email, case insensitive.
+     *
+     * @param query prefix
+     * @param limit maximum number of ids
+     * @return ids of matching users, which can be used for lookups in repository
+     * */
+    List<Long> search(String query, int limit);
+}
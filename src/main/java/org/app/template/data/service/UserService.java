@@ -8,5 +8,17 @@ import java.util.List;
 
 public interface UserService extends UserDetailsService {
 
+    /**
+     * Cache of {@link #loadUserByUsername(String)}, key is email. Value includes permission mask, so role changes
+     * are seen after cache TTL or after {@link #evictUserDetails()}
+     * */
+    String USER_DETAILS_CACHE = "userDetails";
+
     User getCurrentUser() throws AuthenticationCredentialsNotFoundException;
+
+    /**
+     * Drops cached user details, so next authentication and next re-issued session token get current password
+     * and permissions. User save and delete evict the cache themselves, changes of roles or role permissions must call it.
+     * */
+    void evictUserDetails();
 }
@@ -0,0 +1,262 @@
+package org.app.template.data.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.app.template.config.startup.DeferredInit;
+import org.app.template.data.domain.User;
+import org.app.template.data.repository.UserRepository;
+import org.app.template.data.service.UserImportResult;
+import org.app.template.data.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads CSV batch by batch: passwords of a batch are hashed in parallel, then users are persisted in one transaction,
+ * which Hibernate sends as JDBC batch inserts, and get default role. Rows with missing columns or used email are skipped
+ * and reported with row number, so they don't fail the batch on a database constraint. Emails are checked per batch,
+ * against the batch and database, which already has previous batches, so memory doesn't grow with the file.
+ * Hashing pool leaves cores to login BCrypt and request threads.
+ */
+@DeferredInit
+@Component
+public class UserImportServiceImpl implements UserImportService {
+
+	private static final Log logger = LogFactory.getLog(UserImportServiceImpl.class);
+
+	private static final String[] REQUIRED_COLUMNS = {"firstName", "secondName", "email", "password"};
+
+	private final CsvMapper csvMapper = new CsvMapper();
+
+	private final PasswordEncoder passwordEncoder;
+
+	private final UserRepository userRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private ExecutorService hashingExecutor;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${spring.config.userImportBatchSize:500}")
+	private int batchSize;
+
+	/**
+	 * Defaults to half of processors
+	 * */
+	@Value("${spring.config.userImportHashingThreads:0}")
+	private int hashingThreads;
+
+	@Autowired
+	public UserImportServiceImpl(PasswordEncoder passwordEncoder, UserRepository userRepository, PlatformTransactionManager transactionManager) {
+		this.passwordEncoder = passwordEncoder;
+		this.userRepository = userRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@PostConstruct
+	private void init() {
+		int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		AtomicInteger threadNumber = new AtomicInteger();
+		hashingExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	private void destroy() {
+		hashingExecutor.shutdownNow();
+	}
+
+	@Override
+	public UserImportResult importUsers(InputStream csv) throws IOException {
+		long start = System.currentTimeMillis();
+		long imported = 0;
+		UserImportResult.Errors errors = new UserImportResult.Errors();
+
+		MappingIterator<Map<String, String>> rows = csvMapper.readerFor(Map.class)
+				.with(CsvSchema.emptySchema().withHeader())
+				.readValues(csv);
+
+		// header is the first row
+		long rowNumber = 1;
+		List<ImportRow> batch = new ArrayList<>(batchSize);
+		while (rows.hasNextValue()) {
+			ImportRow row = new ImportRow(++rowNumber, rows.nextValue());
+			String error = validate(row.values);
+			if (error != null) {
+				errors.add(row.number, error);
+				continue;
+			}
+
+			batch.add(row);
+			if (batch.size() == batchSize) {
+				imported += importBatch(batch, errors);
+				batch.clear();
+				logProgress(imported, start);
+			}
+		}
+		if (!batch.isEmpty()) {
+			imported += importBatch(batch, errors);
+			logProgress(imported, start);
+		}
+
+		return new UserImportResult(imported, System.currentTimeMillis() - start, errors);
+	}
+
+	private int importBatch(List<ImportRow> batch, UserImportResult.Errors errors) {
+		List<ImportRow> newRows = rejectExisting(rejectDuplicates(batch, errors), errors);
+		return newRows.isEmpty() ? 0 : persist(hashPasswords(newRows));
+	}
+
+	/**
+	 * @return rows, which email is first in batch, other rows are reported as errors. Duplicates of previous batches
+	 * are already in database
+	 * */
+	private static List<ImportRow> rejectDuplicates(List<ImportRow> batch, UserImportResult.Errors errors) {
+		Set<String> emails = new HashSet<>();
+		List<ImportRow> uniqueRows = new ArrayList<>(batch.size());
+		for (ImportRow row : batch) {
+			if (emails.add(normalizeEmail(row.values.get("email")))) {
+				uniqueRows.add(row);
+			} else {
+				errors.add(row.number, "Duplicate email in import");
+			}
+		}
+		return uniqueRows;
+	}
+
+	/**
+	 * @return rows, which email is not used yet, rows with used email are reported as errors
+	 * */
+	private List<ImportRow> rejectExisting(List<ImportRow> batch, UserImportResult.Errors errors) {
+		List<String> batchEmails = new ArrayList<>(batch.size());
+		for (ImportRow row : batch) {
+			batchEmails.add(row.values.get("email").trim());
+		}
+		Set<String> existing = new HashSet<>();
+		for (String email : entityManager.createQuery("select u.email from User u where u.email in :emails", String.class)
+				.setParameter("emails", batchEmails)
+				.getResultList()) {
+			existing.add(normalizeEmail(email));
+		}
+		if (existing.isEmpty()) {
+			return batch;
+		}
+
+		List<ImportRow> newRows = new ArrayList<>(batch.size());
+		for (ImportRow row : batch) {
+			if (existing.contains(normalizeEmail(row.values.get("email")))) {
+				errors.add(row.number, "User with this email already exists");
+			} else {
+				newRows.add(row);
+			}
+		}
+		return newRows;
+	}
+
+	private List<User> hashPasswords(List<ImportRow> batch) {
+		List<Callable<User>> tasks = new ArrayList<>(batch.size());
+		for (ImportRow row : batch) {
+			tasks.add(() -> createUser(row.values));
+		}
+
+		List<User> users = new ArrayList<>(batch.size());
+		try {
+			for (Future<User> future : hashingExecutor.invokeAll(tasks)) {
+				users.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("User import interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failure hashing password", e.getCause());
+		}
+		return users;
+	}
+
+	/**
+	 * @return error message or null when row is valid
+	 * */
+	private static String validate(Map<String, String> row) {
+		for (String column : REQUIRED_COLUMNS) {
+			if (!StringUtils.hasText(row.get(column))) {
+				return "Column " + column + " is required";
+			}
+		}
+		return null;
+	}
+
+	private User createUser(Map<String, String> row) {
+		User user = new User();
+		user.setFirstName(row.get("firstName").trim());
+		user.setSecondName(row.get("secondName").trim());
+		user.setEmail(row.get("email").trim());
+		user.setPassword(passwordEncoder.encode(row.get("password")));
+		return user;
+	}
+
+	private static String normalizeEmail(String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static void logProgress(long imported, long start) {
+		long elapsed = System.currentTimeMillis() - start;
+		logger.info("Imported " + imported + " users, " + (elapsed > 0 ? imported * 1000 / elapsed : imported) + " users/s");
+	}
+
+	private int persist(List<User> users) {
+		return transactionTemplate.execute(status -> {
+			List<Long> ids = new ArrayList<>(users.size());
+			for (User user : users) {
+				entityManager.persist(user);
+				ids.add(user.getId());
+			}
+			entityManager.flush();
+			userRepository.assignDefaultRole(ids);
+			entityManager.clear();
+			return users.size();
+		});
+	}
+
+	private static class ImportRow {
+
+		private final long number;
+
+		private final Map<String, String> values;
+
+		private ImportRow(long number, Map<String, String> values) {
+			this.number = number;
+			this.values = values;
+		}
+	}
+}
@@ -0,0 +1,347 @@
+package org.app.template.data.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.app.template.data.domain.User;
+import org.app.template.data.repository.UserRepository;
+import org.app.template.data.service.UserSearchService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory prefix index: sorted map of normalized terms to user ids. Built on startup from {@link UserRepository}
+ * and maintained by Hibernate post-commit listeners, so saves through repository and bulk import are both seen.
+ * Readers don't lock, writers are serialized.
+ */
+@Component
+public class UserSearchServiceImpl implements UserSearchService,
+		PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+	private static final Log logger = LogFactory.getLog(UserSearchServiceImpl.class);
+
+	private static final long[] NO_IDS = new long[0];
+
+	private final UserRepository userRepository;
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Index is built in background, search returns partial results until it is ready
+	 * */
+	@Value("${spring.config.fastStartup:false}")
+	private boolean fastStartup;
+
+	/**
+	 * Term to sorted ids, arrays are never modified
+	 * */
+	private final ConcurrentSkipListMap<String, long[]> termIds = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Indexed terms of each user, needed to remove old terms on update
+	 * */
+	private final Map<Long, Set<String>> userTerms = new ConcurrentHashMap<>();
+
+	/**
+	 * Ids deleted while index is being built, their collected terms are not published. Null when no build runs
+	 * */
+	private Set<Long> deletedDuringBuild;
+
+	@Autowired
+	public UserSearchServiceImpl(UserRepository userRepository, EntityManagerFactory entityManagerFactory) {
+		this.userRepository = userRepository;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@PostConstruct
+	private void registerListeners() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (fastStartup) {
+			Thread indexBuilder = new Thread(this::buildIndex, "user-search-index");
+			indexBuilder.setDaemon(true);
+			indexBuilder.start();
+		} else {
+			buildIndex();
+		}
+	}
+
+	/**
+	 * Collects ids of each term into growable arrays without lock, sorts them once and merges them into index,
+	 * so build is linear in number of users. Copy-on-write of {@link #addId(String, long)} is for single updates only.
+	 * */
+	public void buildIndex() {
+		long start = System.currentTimeMillis();
+		Map<Long, Set<String>> builtUserTerms = new HashMap<>();
+		Map<String, IdList> builtTermIds = new HashMap<>();
+		startBuild();
+		try {
+			userRepository.forEachUser(null, user -> {
+				Set<String> terms = getTerms(user);
+				builtUserTerms.put(user.getId(), terms);
+				for (String term : terms) {
+					builtTermIds.computeIfAbsent(term, key -> new IdList()).add(user.getId());
+				}
+			});
+			publish(builtUserTerms, builtTermIds);
+		} finally {
+			finishBuild();
+		}
+		logger.info("User search index built: " + userTerms.size() + " users, " + termIds.size() + " terms in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@Override
+	public List<Long> search(String query, int limit) {
+		String prefix = normalize(query);
+		if (prefix == null || limit <= 0) {
+			return new ArrayList<>();
+		}
+
+		Set<Long> ids = new LinkedHashSet<>();
+		NavigableMap<String, long[]> matches = termIds.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+		for (long[] termUserIds : matches.values()) {
+			for (long id : termUserIds) {
+				ids.add(id);
+				if (ids.size() == limit) {
+					return new ArrayList<>(ids);
+				}
+			}
+		}
+		return new ArrayList<>(ids);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof User) {
+			index((User) event.getEntity());
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof User) {
+			index((User) event.getEntity());
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof User) {
+			remove(((User) event.getEntity()).getId());
+		}
+	}
+
+	@Override
+	public void onPostInsertCommitFailed(PostInsertEvent event) {
+	}
+
+	@Override
+	public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+	}
+
+	@Override
+	public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+	}
+
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return User.class.isAssignableFrom(persister.getMappedClass());
+	}
+
+	private synchronized void startBuild() {
+		deletedDuringBuild = new HashSet<>();
+	}
+
+	private synchronized void finishBuild() {
+		deletedDuringBuild = null;
+	}
+
+	/**
+	 * Users, which were indexed by post-commit listeners during build, are skipped, their terms are more recent.
+	 * Users, which were deleted during build, are skipped too, their collected terms are stale
+	 * */
+	private synchronized void publish(Map<Long, Set<String>> builtUserTerms, Map<String, IdList> builtTermIds) {
+		Set<Long> skipped = new HashSet<>(deletedDuringBuild);
+		for (Map.Entry<Long, Set<String>> entry : builtUserTerms.entrySet()) {
+			if (!skipped.contains(entry.getKey()) && userTerms.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+				skipped.add(entry.getKey());
+			}
+		}
+		for (Map.Entry<String, IdList> entry : builtTermIds.entrySet()) {
+			long[] ids = entry.getValue().toSortedArray(skipped);
+			if (ids.length > 0) {
+				termIds.merge(entry.getKey(), ids, UserSearchServiceImpl::union);
+			}
+		}
+	}
+
+	private synchronized void index(User user) {
+		Long id = user.getId();
+		Set<String> terms = getTerms(user);
+
+		Set<String> oldTerms = userTerms.put(id, terms);
+		if (oldTerms != null) {
+			for (String term : oldTerms) {
+				if (!terms.contains(term)) {
+					removeId(term, id);
+				}
+			}
+		}
+		for (String term : terms) {
+			if (oldTerms == null || !oldTerms.contains(term)) {
+				addId(term, id);
+			}
+		}
+	}
+
+	private synchronized void remove(Long id) {
+		if (deletedDuringBuild != null) {
+			deletedDuringBuild.add(id);
+		}
+		Set<String> oldTerms = userTerms.remove(id);
+		if (oldTerms != null) {
+			for (String term : oldTerms) {
+				removeId(term, id);
+			}
+		}
+	}
+
+	private void addId(String term, long id) {
+		long[] ids = termIds.getOrDefault(term, NO_IDS);
+		int idx = Arrays.binarySearch(ids, id);
+		if (idx < 0) {
+			int insertIdx = -idx - 1;
+			long[] newIds = new long[ids.length + 1];
+			System.arraycopy(ids, 0, newIds, 0, insertIdx);
+			newIds[insertIdx] = id;
+			System.arraycopy(ids, insertIdx, newIds, insertIdx + 1, ids.length - insertIdx);
+			termIds.put(term, newIds);
+		}
+	}
+
+	private void removeId(String term, long id) {
+		long[] ids = termIds.get(term);
+		int idx = ids != null ? Arrays.binarySearch(ids, id) : -1;
+		if (idx >= 0) {
+			if (ids.length == 1) {
+				termIds.remove(term);
+			} else {
+				long[] newIds = new long[ids.length - 1];
+				System.arraycopy(ids, 0, newIds, 0, idx);
+				System.arraycopy(ids, idx + 1, newIds, idx, ids.length - idx - 1);
+				termIds.put(term, newIds);
+			}
+		}
+	}
+
+	private Set<String> getTerms(User user) {
+		Set<String> terms = new LinkedHashSet<>();
+		addTerm(terms, user.getFirstName());
+		addTerm(terms, user.getSecondName());
+		addTerm(terms, user.getFirstName() + " " + user.getSecondName());
+		addTerm(terms, user.getEmail());
+		return terms;
+	}
+
+	/**
+	 * @return sorted ids of both sorted arrays without duplicates
+	 * */
+	private static long[] union(long[] left, long[] right) {
+		long[] ids = new long[left.length + right.length];
+		int leftIdx = 0;
+		int rightIdx = 0;
+		int size = 0;
+		while (leftIdx < left.length || rightIdx < right.length) {
+			long id;
+			if (rightIdx == right.length || (leftIdx < left.length && left[leftIdx] <= right[rightIdx])) {
+				id = left[leftIdx++];
+			} else {
+				id = right[rightIdx++];
+			}
+			if (size == 0 || ids[size - 1] != id) {
+				ids[size++] = id;
+			}
+		}
+		return size == ids.length ? ids : Arrays.copyOf(ids, size);
+	}
+
+	private void addTerm(Set<String> terms, String value) {
+		String term = normalize(value);
+		if (term != null) {
+			terms.add(term);
+		}
+	}
+
+	private String normalize(String value) {
+		if (value == null) {
+			return null;
+		}
+		String term = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+		return term.isEmpty() ? null : term;
+	}
+
+	/**
+	 * Ids of a term collected during build
+	 * */
+	private static class IdList {
+
+		private long[] ids = new long[4];
+
+		private int size;
+
+		private void add(long id) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = id;
+		}
+
+		private long[] toSortedArray(Set<Long> skipped) {
+			long[] sorted = new long[size];
+			int sortedSize = 0;
+			for (int i = 0; i < size; i++) {
+				if (skipped.isEmpty() || !skipped.contains(ids[i])) {
+					sorted[sortedSize++] = ids[i];
+				}
+			}
+			sorted = sortedSize == size ? sorted : Arrays.copyOf(sorted, sortedSize);
+			Arrays.sort(sorted);
+			return sorted;
+		}
+	}
+}
@@ -6,12 +6,17 @@ import org.app.template.data.domain.QUser;
 import org.app.template.data.domain.User;
 import org.app.template.data.repository.UserRepository;
 import org.app.template.data.service.UserService;
+import org.app.template.metrics.LatencyHistogram;
+import org.app.template.metrics.MetricsRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
@@ -20,21 +25,38 @@ public class UserServiceImpl implements UserService {
 
 	private final UserRepository userRepository;
 
+	private final LatencyHistogram loadUserTimer;
+
 	@Autowired
-	public UserServiceImpl(UserRepository userRepository) {
+	public UserServiceImpl(UserRepository userRepository, MetricsRegistry metricsRegistry) {
 		this.userRepository = userRepository;
+		this.loadUserTimer = metricsRegistry.timer("user.loadUserByUsername");
 	}
 
 
+	/**
+	 * Not read-only, so lookup goes to primary: cached entry is evicted on save, and reload from lagging replica
+	 * would cache old password and permissions again.
+	 * */
 	@Override
+	@Cacheable(USER_DETAILS_CACHE)
+	@Transactional
 	public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+		long start = System.nanoTime();
 		User user = userRepository.findOne(QUser.user.email.eq(email));
+		loadUserTimer.recordSince(start);
 		if (user == null) {
 			throw new UsernameNotFoundException("Can't find user with email: " + email);
 		}
+		user.setPermissions(userRepository.findPermissionMask(user.getId()));
 		return user;
 	}
 
+	@Override
+	@CacheEvict(value = USER_DETAILS_CACHE, allEntries = true)
+	public void evictUserDetails() {
+	}
+
 	@Override
 	public User getCurrentUser() throws AuthenticationCredentialsNotFoundException {
 		if (SecurityContextHolder.getContext() != null && SecurityContextHolder.getContext().getAuthentication() != null) {
@@ -0,0 +1,38 @@
+package org.app.template.data.view;
+
+/**
+ * Immutable read model of {@link org.app.template.data.domain.User} for display, without password.
+ */
+public final class UserView {
+
+    private final Long id;
+
+    private final String firstName;
+
+    private final String secondName;
+
+    private final String email;
+
+    public UserView(Long id, String firstName, String secondName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.secondName = secondName;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getSecondName() {
+        return secondName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+}
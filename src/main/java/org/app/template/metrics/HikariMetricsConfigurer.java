@@ -0,0 +1,53 @@
+package org.app.template.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets metrics tracker to every Hikari pool before it starts, so pool statistics and connection wait time
+ * are available in {@link MetricsRegistry}.
+ *
+ * @author i.segodin
+ */
+@Component
+public class HikariMetricsConfigurer implements BeanPostProcessor, MetricsTrackerFactory {
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof HikariDataSource && ((HikariDataSource) bean).getMetricsTrackerFactory() == null
+                && ((HikariDataSource) bean).getMetricRegistry() == null) {
+            ((HikariDataSource) bean).setMetricsTrackerFactory(this);
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        metricsRegistry.gauge("pool_connections_active", "pool", poolName, poolStats::getActiveConnections);
+        metricsRegistry.gauge("pool_connections_idle", "pool", poolName, poolStats::getIdleConnections);
+        metricsRegistry.gauge("pool_connections_total", "pool", poolName, poolStats::getTotalConnections);
+        metricsRegistry.gauge("pool_connections_max", "pool", poolName, poolStats::getMaxConnections);
+        metricsRegistry.gauge("pool_threads_pending", "pool", poolName, poolStats::getPendingThreads);
+        LatencyHistogram acquireTimer = metricsRegistry.summary("pool_acquire_seconds", "pool", poolName);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTimer.record(elapsedAcquiredNanos);
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package org.app.template.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free and allocation-free latency histogram with log-linear buckets (HdrHistogram-like):
+ * every power of two range is split into 16 linear sub-buckets, so relative error is below 1/16.
+ * Values are nanoseconds, counts are cumulative since start.
+ *
+ * @author i.segodin
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * @param startNanos value of {@link System#nanoTime()} at start of measured operation
+     * */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSumNanos() {
+        return sum.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile from 0 to 1
+     * @return upper bound of bucket, which contains value at given quantile, or 0 when histogram is empty
+     * */
+    public long getValueAtQuantile(double quantile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(upperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    public double getValueAtQuantile(double quantile, TimeUnit unit) {
+        return (double) getValueAtQuantile(quantile) / unit.toNanos(1);
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
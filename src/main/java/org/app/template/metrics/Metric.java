@@ -0,0 +1,76 @@
+package org.app.template.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Family of samples with common name, type and label, e.g. active requests of every execution lane.
+ * Values are read from registered sources on every scrape, so subsystems keep their own counters.
+ *
+ * @author i.segodin
+ */
+public final class Metric {
+
+    public enum Type {
+        GAUGE, COUNTER, SUMMARY
+    }
+
+    /**
+     * Key of the only sample of a metric without label
+     * */
+    public static final String NO_LABEL = "";
+
+    private final String name;
+
+    private final Type type;
+
+    private final String label;
+
+    private final List<Supplier<? extends Map<String, ?>>> sources = new CopyOnWriteArrayList<>();
+
+    Metric(String name, Type type, String label) {
+        this.name = name;
+        this.type = type;
+        this.label = label;
+    }
+
+    /**
+     * @return name in Prometheus style, without application prefix
+     * */
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return label name or null when metric has single sample
+     * */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return current values by label value, {@link Long} for gauges and counters, {@link LatencyHistogram} for summaries
+     * */
+    public Map<String, Object> getSamples() {
+        if (sources.size() == 1) {
+            return Collections.unmodifiableMap(sources.get(0).get());
+        }
+        Map<String, Object> samples = new LinkedHashMap<>();
+        for (Supplier<? extends Map<String, ?>> source : sources) {
+            samples.putAll(source.get());
+        }
+        return samples;
+    }
+
+    void addSource(Supplier<? extends Map<String, ?>> source) {
+        sources.add(source);
+    }
+}
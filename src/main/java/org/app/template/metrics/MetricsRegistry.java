@@ -0,0 +1,116 @@
+package org.app.template.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds latency histograms of components and request mappings, and metrics, which subsystems register on start
+ * (gauges, counters and summaries). Components should get their histogram once and keep reference, request mapping
+ * histograms are looked up by pattern. Registered values are read only when metrics are rendered.
+ *
+ * @author i.segodin
+ */
+@Component
+public class MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyHistogram> requestTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Key is metric name, sorted so rendering order doesn't depend on start order
+     * */
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param name component name
+     * @return histogram of component, created on first call
+     * */
+    public LatencyHistogram timer(String name) {
+        return timers.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * @param pattern request mapping pattern
+     * @return histogram of request mapping, created on first call
+     * */
+    public LatencyHistogram requestTimer(String pattern) {
+        LatencyHistogram histogram = requestTimers.get(pattern);
+        return histogram != null ? histogram : requestTimers.computeIfAbsent(pattern, key -> new LatencyHistogram());
+    }
+
+    public void gauge(String name, LongSupplier value) {
+        gauge(name, null, Metric.NO_LABEL, value);
+    }
+
+    /**
+     * Registers current value, which may go up and down, e.g. queue size
+     * */
+    public void gauge(String name, String label, String labelValue, LongSupplier value) {
+        register(name, Metric.Type.GAUGE, label, () -> Collections.singletonMap(labelValue, value.getAsLong()));
+    }
+
+    public void counter(String name, LongSupplier value) {
+        counter(name, null, Metric.NO_LABEL, value);
+    }
+
+    /**
+     * Registers monotonic total, e.g. rejected requests
+     * */
+    public void counter(String name, String label, String labelValue, LongSupplier value) {
+        register(name, Metric.Type.COUNTER, label, () -> Collections.singletonMap(labelValue, value.getAsLong()));
+    }
+
+    /**
+     * Registers totals, which label values are known only at render time
+     * */
+    public void counters(String name, String label, Supplier<Map<String, Long>> values) {
+        register(name, Metric.Type.COUNTER, label, values);
+    }
+
+    /**
+     * @return new histogram, registered as summary with given label value
+     * */
+    public LatencyHistogram summary(String name, String label, String labelValue) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        register(name, Metric.Type.SUMMARY, label, () -> Collections.singletonMap(labelValue, histogram));
+        return histogram;
+    }
+
+    /**
+     * Registers histograms, which label values are known only at render time
+     * */
+    public void summaries(String name, String label, Supplier<Map<String, LatencyHistogram>> values) {
+        register(name, Metric.Type.SUMMARY, label, values);
+    }
+
+    public Map<String, LatencyHistogram> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    public Map<String, LatencyHistogram> getRequestTimers() {
+        return Collections.unmodifiableMap(requestTimers);
+    }
+
+    public Collection<Metric> getMetrics() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    /**
+     * Several subsystems may add samples with different label values to the same metric
+     * */
+    private void register(String name, Metric.Type type, String label, Supplier<? extends Map<String, ?>> source) {
+        Metric metric = metrics.computeIfAbsent(name, key -> new Metric(name, type, label));
+        if (metric.getType() != type || (label == null ? metric.getLabel() != null : !label.equals(metric.getLabel()))) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + metric.getType() + " with label " + metric.getLabel());
+        }
+        metric.addSource(source);
+    }
+}
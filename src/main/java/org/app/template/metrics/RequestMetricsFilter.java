@@ -0,0 +1,50 @@
+package org.app.template.metrics;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.app.template.metrics.jdbc.StatementProfiler;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records request latency per matched request mapping pattern and marks request scope of {@link StatementProfiler}.
+ *
+ * @author i.segodin
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNMAPPED = "unmapped";
+
+    private MetricsRegistry metricsRegistry;
+
+    private StatementProfiler statementProfiler;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        if (metricsRegistry == null) {
+            metricsRegistry = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(MetricsRegistry.class);
+        }
+        if (statementProfiler == null) {
+            statementProfiler = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getBean(StatementProfiler.class);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        statementProfiler.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String mapping = pattern != null ? pattern.toString() : UNMAPPED;
+            metricsRegistry.requestTimer(mapping).recordSince(start);
+            statementProfiler.endRequest(request.getMethod() + " " + mapping);
+        }
+    }
+}
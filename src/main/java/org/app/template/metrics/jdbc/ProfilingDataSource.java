@@ -0,0 +1,174 @@
+package org.app.template.metrics.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source, which times every statement of target data source and counts rows.
+ * Connections, statements and result sets are wrapped with JDK proxies, target objects are still
+ * available with {@code unwrap}.
+ *
+ * @author i.segodin
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final StatementProfiler profiler;
+
+    public ProfilingDataSource(DataSource targetDataSource, StatementProfiler profiler) {
+        super(targetDataSource);
+        this.profiler = profiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(getTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(getTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(connection, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrapStatement(Statement.class, (Statement) result, null);
+                case "prepareStatement":
+                    return wrapStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall":
+                    return wrapStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default:
+                    return result;
+            }
+        }
+
+        private Object wrapStatement(Class<? extends Statement> statementClass, Statement statement, String sql) {
+            return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{statementClass},
+                    new StatementHandler(statement, sql));
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        /**
+         * SQL of prepared statement or null for plain statement
+         * */
+        private final String preparedSql;
+
+        /**
+         * Statistics of last executed statement, result sets rows are added to it
+         * */
+        private StatementStats stats;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (methodName.equals("getResultSet")) {
+                return wrapResultSet((ResultSet) ProfilingDataSource.invoke(statement, method, args));
+            }
+            if (!methodName.startsWith("execute")) {
+                return ProfilingDataSource.invoke(statement, method, args);
+            }
+
+            String sql = preparedSql != null ? preparedSql : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (sql == null) {
+                // batch of plain statements
+                return ProfilingDataSource.invoke(statement, method, args);
+            }
+
+            stats = profiler.getStats(sql);
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(statement, method, args);
+            profiler.record(sql, stats, System.nanoTime() - start, getUpdatedRows(result));
+
+            return result instanceof ResultSet ? wrapResultSet((ResultSet) result) : result;
+        }
+
+        private long getUpdatedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return Math.max(((Number) result).longValue(), 0);
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+
+        private ResultSet wrapResultSet(ResultSet resultSet) {
+            if (resultSet == null || stats == null) {
+                return resultSet;
+            }
+            return (ResultSet) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet, stats));
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+
+        private final StatementStats stats;
+
+        private ResultSetHandler(ResultSet resultSet, StatementStats stats) {
+            this.resultSet = resultSet;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                stats.addRows(1);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.app.template.metrics.jdbc;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wraps application data source (Hikari pool or read/write routing proxy) with {@link ProfilingDataSource},
+ * when {@code spring.config.sqlProfiling} is on. Pools behind routing proxy are not wrapped, so every statement is counted once.
+ *
+ * @author i.segodin
+ */
+@Component
+public class ProfilingDataSourceConfigurer implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Autowired
+    private StatementProfiler statementProfiler;
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource && !(bean instanceof ProfilingDataSource)
+                && statementProfiler.isEnabled()) {
+            return new ProfilingDataSource((DataSource) bean, statementProfiler);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,232 @@
+package org.app.template.metrics.jdbc;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.app.template.metrics.MetricsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aggregates JDBC statement latency and row counts by normalized SQL, logs slow statements
+ * and statements, which are executed many times within one request (N+1 selects).
+ * Literals are replaced with placeholders, so logged SQL contains no user data.
+ *
+ * @author i.segodin
+ */
+@Component
+public class StatementProfiler {
+
+    private static final Log logger = LogFactory.getLog(StatementProfiler.class);
+
+    private static final String OTHER_STATEMENTS = "other";
+
+    private static final String APPLICATION_PACKAGE = "org.app.template.";
+
+    private static final String METRICS_PACKAGE = "org.app.template.metrics.";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Autowired
+    private MetricsRegistry metricsRegistry;
+
+    @Value("${spring.config.sqlProfiling:false}")
+    private boolean enabled;
+
+    @Value("${spring.config.slowQueryThreshold:500}")
+    private long slowQueryThreshold;
+
+    @Value("${spring.config.repeatedStatementThreshold:10}")
+    private int repeatedStatementThreshold;
+
+    @Value("${spring.config.sqlProfileMaxStatements:500}")
+    private int maxStatements;
+
+    /**
+     * Key is normalized SQL
+     * */
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Key is SQL as sent by Hibernate, bounded like {@link #statements}
+     * */
+    private final Map<String, String> normalizedStatements = new ConcurrentHashMap<>();
+
+    private final LongAdder slowStatements = new LongAdder();
+
+    private final LongAdder repeatedStatementRequests = new LongAdder();
+
+    /**
+     * Statements of current request, null outside of request
+     * */
+    private final ThreadLocal<Map<String, RepeatedStatement>> requestStatements = new ThreadLocal<>();
+
+    @PostConstruct
+    private void init() {
+        metricsRegistry.summaries("sql_statement_seconds", "sql", () -> collectStats(StatementStats::getLatency));
+        metricsRegistry.counters("sql_rows_total", "sql", () -> collectStats(StatementStats::getRows));
+        metricsRegistry.counter("sql_slow_statements_total", this::getSlowStatements);
+        metricsRegistry.counter("sql_repeated_statement_requests_total", this::getRepeatedStatementRequests);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param sql statement text
+     * @return statistics of statement shape, statements above the limit share one entry
+     * */
+    public StatementStats getStats(String sql) {
+        String normalizedSql = normalize(sql);
+        StatementStats stats = statements.get(normalizedSql);
+        if (stats == null) {
+            if (statements.size() >= maxStatements) {
+                normalizedSql = OTHER_STATEMENTS;
+            }
+            stats = statements.computeIfAbsent(normalizedSql, key -> new StatementStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Records statement execution, called by profiling connection after statement returns.
+     *
+     * @param sql statement text
+     * @param stats statistics of statement shape
+     * @param elapsedNanos execution time
+     * @param rows changed rows or 0 for queries (read rows are counted by result set)
+     * */
+    public void record(String sql, StatementStats stats, long elapsedNanos, long rows) {
+        stats.getLatency().record(elapsedNanos);
+        if (rows > 0) {
+            stats.addRows(rows);
+        }
+
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) >= slowQueryThreshold) {
+            slowStatements.increment();
+            logger.warn("Slow statement " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms at " + findOrigin() + ": " + normalize(sql));
+        }
+
+        Map<String, RepeatedStatement> current = requestStatements.get();
+        if (current != null) {
+            RepeatedStatement repeated = current.computeIfAbsent(normalize(sql), key -> new RepeatedStatement());
+            if (++repeated.count == repeatedStatementThreshold) {
+                repeated.origin = findOrigin();
+            }
+        }
+    }
+
+    /**
+     * Starts counting of statements executed by current thread.
+     * */
+    public void beginRequest() {
+        if (enabled) {
+            requestStatements.set(new HashMap<>());
+        }
+    }
+
+    /**
+     * Stops counting and logs statements executed at least {@code spring.config.repeatedStatementThreshold} times.
+     *
+     * @param requestDescription method and mapping of request, used in log
+     * */
+    public void endRequest(String requestDescription) {
+        Map<String, RepeatedStatement> current = requestStatements.get();
+        if (current == null) {
+            return;
+        }
+        requestStatements.remove();
+
+        boolean repeatedFound = false;
+        for (Map.Entry<String, RepeatedStatement> entry : current.entrySet()) {
+            RepeatedStatement repeated = entry.getValue();
+            if (repeated.count >= repeatedStatementThreshold) {
+                repeatedFound = true;
+                logger.warn("Statement executed " + repeated.count + " times in " + requestDescription
+                        + ", possible N+1 at " + repeated.origin + ": " + entry.getKey());
+            }
+        }
+        if (repeatedFound) {
+            repeatedStatementRequests.increment();
+        }
+    }
+
+    public Map<String, StatementStats> getStatements() {
+        return Collections.unmodifiableMap(statements);
+    }
+
+    private <V> Map<String, V> collectStats(Function<StatementStats, V> value) {
+        Map<String, V> values = new LinkedHashMap<>();
+        statements.forEach((sql, stats) -> values.put(sql, value.apply(stats)));
+        return values;
+    }
+
+    public long getSlowStatements() {
+        return slowStatements.sum();
+    }
+
+    public long getRepeatedStatementRequests() {
+        return repeatedStatementRequests.sum();
+    }
+
+    /**
+     * @return SQL with literals replaced with placeholders, IN lists collapsed and whitespace normalized
+     * */
+    String normalize(String sql) {
+        String normalizedSql = normalizedStatements.get(sql);
+        if (normalizedSql == null) {
+            normalizedSql = STRING_LITERAL.matcher(sql).replaceAll("?");
+            normalizedSql = NUMBER_LITERAL.matcher(normalizedSql).replaceAll("?");
+            normalizedSql = PLACEHOLDER_LIST.matcher(normalizedSql).replaceAll("(?)");
+            normalizedSql = WHITESPACE.matcher(normalizedSql).replaceAll(" ").trim();
+
+            if (normalizedStatements.size() >= maxStatements) {
+                normalizedStatements.clear();
+            }
+            normalizedStatements.put(sql, normalizedSql);
+        }
+        return normalizedSql;
+    }
+
+    /**
+     * @return first application method in current stack, which is not part of profiler
+     * (repository implementation, service or controller)
+     * */
+    private String findOrigin() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith(APPLICATION_PACKAGE) && !className.startsWith(METRICS_PACKAGE) && !className.contains("$$")) {
+                return element.toString();
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * Per request counter, accessed by request thread only
+     * */
+    private static final class RepeatedStatement {
+
+        private int count;
+
+        private String origin;
+    }
+}
@@ -0,0 +1,32 @@
+package org.app.template.metrics.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.app.template.metrics.LatencyHistogram;
+
+/**
+ * Execution statistics of a single statement shape (normalized SQL).
+ *
+ * @author i.segodin
+ */
+public final class StatementStats {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder rows = new LongAdder();
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return rows read from result sets plus rows changed by updates
+     * */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+}
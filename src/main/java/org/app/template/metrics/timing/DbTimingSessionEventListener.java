@@ -0,0 +1,37 @@
+package org.app.template.metrics.timing;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Feeds {@link RequestTimeline#PHASE_DB} with execution time of JDBC statements and batches run by Hibernate.
+ * Registered for every session with {@code hibernate.session.events.auto}, so DB phase doesn't depend on
+ * SQL profiling and costs one thread local lookup per statement. Session is used by one thread, so state needs no sync.
+ *
+ * @author i.segodin
+ */
+public class DbTimingSessionEventListener extends BaseSessionEventListener {
+
+    private long statementStart;
+
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = RequestTimeline.begin();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTimeline.end(RequestTimeline.PHASE_DB, statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = RequestTimeline.begin();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTimeline.end(RequestTimeline.PHASE_DB, batchStart);
+    }
+}
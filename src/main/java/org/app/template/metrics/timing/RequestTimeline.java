@@ -0,0 +1,161 @@
+package org.app.template.metrics.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Durations of request phases (filters, access checks, JDBC, handler, view), recorded by request thread.
+ * Timeline exists only for requests, which asked for {@code Server-Timing} or were sampled for trace,
+ * otherwise recording is a single thread local lookup.
+ *
+ * @author i.segodin
+ */
+public final class RequestTimeline {
+
+    public static final String PHASE_FILTERS = "filters";
+
+    public static final String PHASE_ACL = "acl";
+
+    public static final String PHASE_DB = "db";
+
+    public static final String PHASE_HANDLER = "handler";
+
+    public static final String PHASE_VIEW = "view";
+
+    public static final String PHASE_TOTAL = "total";
+
+    /**
+     * Returned by {@link #begin()} when there is no timeline for current request
+     * */
+    private static final long NOT_RECORDED = Long.MIN_VALUE;
+
+    private static final ThreadLocal<RequestTimeline> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Value is total duration in nanoseconds and number of occurrences
+     * */
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+
+    private long markNanos = NOT_RECORDED;
+
+    private RequestTimeline() {
+    }
+
+    static RequestTimeline start() {
+        RequestTimeline timeline = new RequestTimeline();
+        CURRENT.set(timeline);
+        return timeline;
+    }
+
+    void finish() {
+        CURRENT.remove();
+        record(PHASE_TOTAL, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * @return timeline of current request or null
+     * */
+    public static RequestTimeline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return start of a phase, to be passed to {@link #end(String, long)}
+     * */
+    public static long begin() {
+        return CURRENT.get() != null ? System.nanoTime() : NOT_RECORDED;
+    }
+
+    public static void end(String phase, long phaseStartNanos) {
+        if (phaseStartNanos != NOT_RECORDED) {
+            add(phase, System.nanoTime() - phaseStartNanos);
+        }
+    }
+
+    /**
+     * Adds duration of a phase to timeline of current request, if there is one
+     * */
+    public static void add(String phase, long nanos) {
+        RequestTimeline timeline = CURRENT.get();
+        if (timeline != null) {
+            timeline.record(phase, nanos);
+        }
+    }
+
+    public void record(String phase, long nanos) {
+        long[] values = phases.computeIfAbsent(phase, key -> new long[2]);
+        values[0] += nanos;
+        values[1]++;
+    }
+
+    /**
+     * @return nanoseconds since start of request
+     * */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Remembers current time, for phases which start and end in different callbacks
+     * */
+    public void mark() {
+        markNanos = System.nanoTime();
+    }
+
+    /**
+     * Records phase from last {@link #mark()}
+     * */
+    public void recordSinceMark(String phase) {
+        if (markNanos != NOT_RECORDED) {
+            record(phase, System.nanoTime() - markNanos);
+            markNanos = NOT_RECORDED;
+        }
+    }
+
+    /**
+     * @return value of {@code Server-Timing} header, durations in milliseconds,
+     * total is time elapsed so far when request is not finished yet
+     * */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : phases.entrySet()) {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(entry.getKey());
+            if (entry.getValue()[1] > 1) {
+                header.append(";desc=\"").append(entry.getValue()[1]).append(" calls\"");
+            }
+            header.append(";dur=").append(toMillis(entry.getValue()[0]));
+        }
+        if (!phases.containsKey(PHASE_TOTAL)) {
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(PHASE_TOTAL).append(";dur=").append(toMillis(getElapsedNanos()));
+        }
+        return header.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder trace = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : phases.entrySet()) {
+            if (trace.length() > 0) {
+                trace.append(", ");
+            }
+            trace.append(entry.getKey()).append('=').append(toMillis(entry.getValue()[0])).append(" ms");
+            if (entry.getValue()[1] > 1) {
+                trace.append(" (").append(entry.getValue()[1]).append(')');
+            }
+        }
+        return trace.toString();
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,67 @@
+package org.app.template.metrics.timing;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Starts {@link RequestTimeline} when request has {@code X-Server-Timing} header and {@code spring.config.serverTiming}
+ * is on, or when request is sampled for trace log ({@code spring.config.requestTraceSampleRate}, 0..1).
+ * Response is not touched here, {@code Server-Timing} header is added by {@link ServerTimingFilter}
+ * after security filter chain, when user may see it.
+ *
+ * @author i.segodin
+ */
+public class RequestTimelineFilter extends OncePerRequestFilter {
+
+    private static final Log logger = LogFactory.getLog(RequestTimelineFilter.class);
+
+    public static final String HEADER_SERVER_TIMING = "Server-Timing";
+
+    public static final String HEADER_SERVER_TIMING_REQUEST = "X-Server-Timing";
+
+    private boolean serverTiming;
+
+    private double traceSampleRate;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        Environment environment = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext()).getEnvironment();
+        serverTiming = environment.getProperty("spring.config.serverTiming", Boolean.class, false);
+        traceSampleRate = environment.getProperty("spring.config.requestTraceSampleRate", Double.class, 0d);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean timingRequested = serverTiming && request.getHeader(HEADER_SERVER_TIMING_REQUEST) != null;
+        boolean sampled = traceSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < traceSampleRate;
+        if (!timingRequested && !sampled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTimeline timeline = RequestTimeline.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            timeline.finish();
+            if (sampled) {
+                logger.info("Request trace " + request.getMethod() + " " + request.getRequestURI() + ": " + timeline);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+package org.app.template.metrics.timing;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Records filter chain, handler and view phases of {@link RequestTimeline}.
+ *
+ * @author i.segodin
+ */
+@Component
+public class RequestTimelineInterceptor extends HandlerInterceptorAdapter {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        RequestTimeline timeline = RequestTimeline.current();
+        if (timeline != null) {
+            timeline.record(RequestTimeline.PHASE_FILTERS, timeline.getElapsedNanos());
+            timeline.mark();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+        RequestTimeline timeline = RequestTimeline.current();
+        if (timeline != null) {
+            timeline.recordSinceMark(RequestTimeline.PHASE_HANDLER);
+            timeline.mark();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        RequestTimeline timeline = RequestTimeline.current();
+        if (timeline != null) {
+            // handler failed, when postHandle wasn't called
+            timeline.recordSinceMark(ex != null ? RequestTimeline.PHASE_HANDLER : RequestTimeline.PHASE_VIEW);
+        }
+    }
+}
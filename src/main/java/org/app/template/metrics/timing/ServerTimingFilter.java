@@ -0,0 +1,114 @@
+package org.app.template.metrics.timing;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.app.template.acl.UserAcl;
+import org.springframework.core.env.Environment;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Adds {@code Server-Timing} header to response of request with {@code X-Server-Timing} header, when
+ * {@code spring.config.serverTiming} is on and current user may view metrics. Placed after security filter chain,
+ * so user is checked before response is wrapped, other requests pass untouched.
+ * <p>Response body is not buffered and output stream is not wrapped, so streaming and async responses are written
+ * as usual. Header is set when body output is first taken, the last moment it surely reaches client,
+ * and is replaced by complete timeline after request, if response is not committed by then.
+ *
+ * @author i.segodin
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private boolean serverTiming;
+
+    private UserAcl userAcl;
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        WebApplicationContext context = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+        Environment environment = context.getEnvironment();
+        serverTiming = environment.getProperty("spring.config.serverTiming", Boolean.class, false);
+        userAcl = context.getBean(UserAcl.class);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestTimeline timeline = RequestTimeline.current();
+        if (!serverTiming || timeline == null || request.getHeader(RequestTimelineFilter.HEADER_SERVER_TIMING_REQUEST) == null
+                || !userAcl.isCanViewMetrics()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, new ServerTimingResponseWrapper(response, timeline));
+        } finally {
+            if (!response.isCommitted()) {
+                response.setHeader(RequestTimelineFilter.HEADER_SERVER_TIMING, timeline.toServerTiming());
+            }
+        }
+    }
+
+    /**
+     * Sets header before response may be committed, returns output of wrapped response as is
+     * */
+    private static class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+        private final RequestTimeline timeline;
+
+        private ServerTimingResponseWrapper(HttpServletResponse response, RequestTimeline timeline) {
+            super(response);
+            this.timeline = timeline;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setServerTiming();
+            super.sendRedirect(location);
+        }
+
+        private void setServerTiming() {
+            if (!isCommitted()) {
+                setHeader(RequestTimelineFilter.HEADER_SERVER_TIMING, timeline.toServerTiming());
+            }
+        }
+    }
+}
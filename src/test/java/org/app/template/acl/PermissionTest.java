@@ -0,0 +1,50 @@
+package org.app.template.acl;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PermissionTest {
+
+    @Test
+    public void maskIsBitOfOrdinal() {
+        for (Permission permission : Permission.values()) {
+            assertEquals(1L << permission.ordinal(), permission.getMask());
+        }
+    }
+
+    @Test
+    public void permissionIsGrantedByItsBitOnly() {
+        long mask = Permission.VIEW_USER_LIST.getMask() | Permission.VIEW_METRICS.getMask();
+
+        assertTrue(Permission.VIEW_USER_LIST.isGranted(mask));
+        assertTrue(Permission.VIEW_METRICS.isGranted(mask));
+        assertFalse(Permission.IMPORT_USERS.isGranted(mask));
+        assertFalse(Permission.VIEW_USER_LIST.isGranted(0));
+    }
+
+    @Test
+    public void maskIsBuiltFromCodes() {
+        assertEquals(Permission.IMPORT_USERS.getMask() | Permission.VIEW_METRICS.getMask(),
+                Permission.toMask(Arrays.asList("VIEW_METRICS", "IMPORT_USERS", "VIEW_METRICS")));
+        assertEquals(0, Permission.toMask(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void unknownCodesAreIgnored() {
+        assertEquals(Permission.VIEW_USER_LIST.getMask(), Permission.toMask(Arrays.asList("VIEW_USER_LIST", "DROP_DATABASE", "view_metrics")));
+    }
+
+    /**
+     * Order is persisted in permission masks of tokens, so permissions may only be appended
+     * */
+    @Test
+    public void permissionsFitIntoMask() {
+        assertTrue(Permission.values().length <= Long.SIZE);
+    }
+}
@@ -0,0 +1,94 @@
+package org.app.template.acl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.app.template.data.domain.User;
+import org.junit.Test;
+import org.springframework.security.access.AccessDecisionVoter;
+import org.springframework.security.access.ConfigAttribute;
+import org.springframework.security.access.SecurityConfig;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static org.junit.Assert.assertEquals;
+
+public class PermissionVoterTest {
+
+    private final PermissionVoter voter = new PermissionVoter();
+
+    @Test
+    public void accessIsGrantedWhenPrincipalHasAllPermissions() {
+        Authentication authentication = authentication(Permission.VIEW_USER_LIST.getMask() | Permission.IMPORT_USERS.getMask());
+
+        assertEquals(AccessDecisionVoter.ACCESS_GRANTED, voter.vote(authentication, null,
+                attributes(new PermissionAttribute(Permission.VIEW_USER_LIST), new PermissionAttribute(Permission.IMPORT_USERS))));
+    }
+
+    @Test
+    public void accessIsDeniedWhenAnyPermissionIsMissing() {
+        Authentication authentication = authentication(Permission.VIEW_USER_LIST.getMask());
+
+        assertEquals(AccessDecisionVoter.ACCESS_DENIED, voter.vote(authentication, null,
+                attributes(new PermissionAttribute(Permission.VIEW_USER_LIST), new PermissionAttribute(Permission.IMPORT_USERS))));
+    }
+
+    @Test
+    public void accessIsDeniedWithoutUserPrincipal() {
+        Authentication anonymous = new UsernamePasswordAuthenticationToken("anonymous", null);
+
+        assertEquals(AccessDecisionVoter.ACCESS_DENIED, voter.vote(anonymous, null, attributes(new PermissionAttribute(Permission.VIEW_METRICS))));
+        assertEquals(AccessDecisionVoter.ACCESS_DENIED, voter.vote(null, null, attributes(new PermissionAttribute(Permission.VIEW_METRICS))));
+    }
+
+    @Test
+    public void voterAbstainsWithoutPermissionAttributes() {
+        Authentication authentication = authentication(-1L);
+
+        assertEquals(AccessDecisionVoter.ACCESS_ABSTAIN, voter.vote(authentication, null, attributes(new SecurityConfig("ROLE_ADMIN"))));
+        assertEquals(AccessDecisionVoter.ACCESS_ABSTAIN, voter.vote(authentication, null, Collections.<ConfigAttribute>emptyList()));
+    }
+
+    @Test
+    public void metadataSourceReadsMethodAndClassAnnotations() throws NoSuchMethodException {
+        PermissionMetadataSource metadataSource = new PermissionMetadataSource();
+
+        assertEquals(Collections.singletonList(Permission.IMPORT_USERS), permissions(metadataSource.getAttributes(
+                SecuredController.class.getMethod("importUsers"), SecuredController.class)));
+        assertEquals(Collections.singletonList(Permission.VIEW_USER_LIST), permissions(metadataSource.getAttributes(
+                SecuredController.class.getMethod("listUsers"), SecuredController.class)));
+    }
+
+    private static Authentication authentication(long permissions) {
+        User user = new User();
+        user.setEmail("user@mailinator.com");
+        user.setPermissions(permissions);
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    private static Collection<ConfigAttribute> attributes(ConfigAttribute... attributes) {
+        return Arrays.asList(attributes);
+    }
+
+    private static List<Permission> permissions(Collection<ConfigAttribute> attributes) {
+        List<Permission> permissions = new ArrayList<>();
+        for (ConfigAttribute attribute : attributes) {
+            permissions.add(((PermissionAttribute) attribute).getPermission());
+        }
+        return permissions;
+    }
+
+    @RequiresPermission(Permission.VIEW_USER_LIST)
+    public static class SecuredController {
+
+        @RequiresPermission(Permission.IMPORT_USERS)
+        public void importUsers() {
+        }
+
+        public void listUsers() {
+        }
+    }
+}
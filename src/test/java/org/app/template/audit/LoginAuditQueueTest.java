@@ -0,0 +1,76 @@
+package org.app.template.audit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LoginAuditQueueTest {
+
+    @Test
+    public void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(4, new LoginAuditQueue<Integer>(3).capacity());
+        assertEquals(4, new LoginAuditQueue<Integer>(4).capacity());
+        assertEquals(2, new LoginAuditQueue<Integer>(1).capacity());
+    }
+
+    @Test
+    public void emptyQueueReturnsNull() {
+        LoginAuditQueue<Integer> queue = new LoginAuditQueue<>(4);
+
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void fullQueueRejectsOffer() {
+        LoginAuditQueue<Integer> queue = new LoginAuditQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+
+        assertEquals(Integer.valueOf(0), queue.poll());
+        assertTrue(queue.offer(4));
+    }
+
+    @Test
+    public void elementsKeepOrderAcrossWrapAround() {
+        LoginAuditQueue<Integer> queue = new LoginAuditQueue<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int round = 0; round < 10; round++) {
+            // fill to capacity, then drain partially, so head and tail cross slot array bounds at different points
+            while (queue.offer(next)) {
+                next++;
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(Integer.valueOf(expected++), queue.poll());
+            }
+        }
+
+        while (expected < next) {
+            assertEquals(Integer.valueOf(expected++), queue.poll());
+        }
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void drainedQueueIsReusable() {
+        LoginAuditQueue<Integer> queue = new LoginAuditQueue<>(2);
+        for (int round = 0; round < 5; round++) {
+            assertTrue(queue.offer(round * 2));
+            assertTrue(queue.offer(round * 2 + 1));
+            assertFalse(queue.offer(-1));
+
+            assertEquals(Integer.valueOf(round * 2), queue.poll());
+            assertEquals(Integer.valueOf(round * 2 + 1), queue.poll());
+            assertNull(queue.poll());
+        }
+    }
+}
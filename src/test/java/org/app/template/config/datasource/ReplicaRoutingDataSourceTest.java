@@ -0,0 +1,125 @@
+package org.app.template.config.datasource;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two embedded databases, each knows its own name, so query result shows where connection was routed.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final String NODE_QUERY = "SELECT name FROM node";
+
+    private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+    private static final long MAX_LAG_SECONDS = 10;
+
+    private EmbeddedDatabase primary;
+
+    private EmbeddedDatabase replica;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Before
+    public void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+    }
+
+    @After
+    public void tearDown() {
+        if (routingDataSource != null) {
+            routingDataSource.destroy();
+        }
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToReplica() {
+        routingDataSource = createRoutingDataSource(replica, null);
+
+        assertEquals("replica", queryNode(routingDataSource, true));
+        assertEquals("primary", queryNode(routingDataSource, false));
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToPrimaryWhenReplicaLags() {
+        routingDataSource = createRoutingDataSource(replica, LAG_QUERY);
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = ?", MAX_LAG_SECONDS + 1);
+
+        routingDataSource.checkReplica();
+
+        assertFalse(routingDataSource.isReplicaAvailable());
+        assertEquals("primary", queryNode(routingDataSource, true));
+    }
+
+    @Test
+    public void replicaIsUsedAgainAfterSuccessfulCheck() {
+        routingDataSource = createRoutingDataSource(replica, LAG_QUERY);
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.update("UPDATE replica_lag SET seconds = ?", MAX_LAG_SECONDS + 1);
+        routingDataSource.checkReplica();
+
+        replicaTemplate.update("UPDATE replica_lag SET seconds = ?", 0);
+        routingDataSource.checkReplica();
+
+        assertTrue(routingDataSource.isReplicaAvailable());
+        assertEquals("replica", queryNode(routingDataSource, true));
+    }
+
+    @Test
+    public void readOnlyTransactionGoesToPrimaryWhenReplicaConnectionFails() throws SQLException {
+        DataSource failingReplica = mock(DataSource.class);
+        when(failingReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        routingDataSource = createRoutingDataSource(failingReplica, null);
+
+        assertEquals("primary", queryNode(routingDataSource, true));
+        assertFalse(routingDataSource.isReplicaAvailable());
+    }
+
+    private ReplicaRoutingDataSource createRoutingDataSource(DataSource replica, String lagQuery) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica, lagQuery, MAX_LAG_SECONDS, TimeUnit.HOURS.toMillis(1));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    private static String queryNode(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(NODE_QUERY, String.class));
+    }
+
+    private static EmbeddedDatabase createDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(name + "-" + System.nanoTime())
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_lag (seconds BIGINT)");
+        jdbcTemplate.update("INSERT INTO replica_lag (seconds) VALUES (0)");
+        return database;
+    }
+}
@@ -0,0 +1,101 @@
+package org.app.template.config.lane;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.app.template.metrics.LatencyHistogram;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutionLaneTest {
+
+    private static final long LONG_TIMEOUT = 10000;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void requestsAboveLimitAreRejectedWithoutQueue() throws InterruptedException {
+        ExecutionLane lane = createLane(2, 0, LONG_TIMEOUT);
+
+        assertTrue(lane.acquire());
+        assertTrue(lane.acquire());
+        assertFalse(lane.acquire());
+        assertEquals(2, lane.getActive());
+        assertEquals(2, lane.getAdmitted());
+        assertEquals(1, lane.getRejected());
+
+        lane.release();
+
+        assertTrue(lane.acquire());
+    }
+
+    @Test
+    public void queuedRequestIsRejectedAfterTimeout() throws InterruptedException {
+        ExecutionLane lane = createLane(1, 1, 50);
+        assertTrue(lane.acquire());
+
+        long start = System.nanoTime();
+        assertFalse(lane.acquire());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40);
+        assertEquals(0, lane.getQueued());
+        assertEquals(1, lane.getRejected());
+        assertEquals(1, lane.getQueueWait().getCount());
+    }
+
+    @Test
+    public void queuedRequestGetsReleasedPermit() throws Exception {
+        ExecutionLane lane = createLane(1, 1, LONG_TIMEOUT);
+        assertTrue(lane.acquire());
+
+        Future<Boolean> queued = executor.submit(lane::acquire);
+        awaitQueued(lane, 1);
+        lane.release();
+
+        assertTrue(queued.get(LONG_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(1, lane.getActive());
+        assertEquals(0, lane.getQueued());
+    }
+
+    @Test
+    public void requestIsRejectedAtOnceWhenQueueIsFull() throws Exception {
+        ExecutionLane lane = createLane(1, 1, LONG_TIMEOUT);
+        assertTrue(lane.acquire());
+        Future<Boolean> queued = executor.submit(lane::acquire);
+        awaitQueued(lane, 1);
+
+        long start = System.nanoTime();
+        assertFalse(lane.acquire());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < LONG_TIMEOUT / 2);
+        lane.release();
+        assertTrue(queued.get(LONG_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    private static void awaitQueued(ExecutionLane lane, int queued) throws InterruptedException, TimeoutException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LONG_TIMEOUT);
+        while (lane.getQueued() < queued) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("Request is not queued");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static ExecutionLane createLane(int maxConcurrent, int maxQueue, long queueTimeout) {
+        return new ExecutionLane("test", Collections.singletonList("/**"), maxConcurrent, maxQueue, queueTimeout, new LatencyHistogram());
+    }
+}
@@ -0,0 +1,54 @@
+package org.app.template.config.lane;
+
+import org.app.template.metrics.MetricsRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExecutionLanesTest {
+
+    private ExecutionLanes executionLanes;
+
+    @Before
+    public void setUp() {
+        executionLanes = new ExecutionLanes();
+        ReflectionTestUtils.setField(executionLanes, "metricsRegistry", new MetricsRegistry());
+        ReflectionTestUtils.setField(executionLanes, "enabled", true);
+        ReflectionTestUtils.setField(executionLanes, "assetsMaxConcurrent", 4);
+        ReflectionTestUtils.setField(executionLanes, "authMaxConcurrent", 2);
+        ReflectionTestUtils.setField(executionLanes, "pagesMaxConcurrent", 8);
+    }
+
+    @Test
+    public void laneIsSelectedByFirstMatchingPath() {
+        ReflectionTestUtils.invokeMethod(executionLanes, "init");
+
+        assertEquals(ExecutionLanes.LANE_ASSETS, executionLanes.select("/assets/js/app.js").getName());
+        assertEquals(ExecutionLanes.LANE_ASSETS, executionLanes.select("/static/favicon.ico").getName());
+        assertEquals(ExecutionLanes.LANE_AUTH, executionLanes.select("/login").getName());
+        assertEquals(ExecutionLanes.LANE_AUTH, executionLanes.select("/process-login").getName());
+        assertEquals(ExecutionLanes.LANE_PAGES, executionLanes.select("/user/list").getName());
+        assertEquals(ExecutionLanes.LANE_PAGES, executionLanes.select("/").getName());
+    }
+
+    @Test
+    public void lanesHaveConfiguredLimits() {
+        ReflectionTestUtils.invokeMethod(executionLanes, "init");
+
+        assertEquals(4, executionLanes.select("/assets/js/app.js").getMaxConcurrent());
+        assertEquals(2, executionLanes.select("/login").getMaxConcurrent());
+        assertEquals(8, executionLanes.select("/user/list").getMaxConcurrent());
+    }
+
+    @Test
+    public void disabledLanesSelectNothing() {
+        ReflectionTestUtils.setField(executionLanes, "enabled");
+        ReflectionTestUtils.invokeMethod(executionLanes, "init");
+
+        assertNull(executionLanes.select("/login"));
+        assertEquals(0, executionLanes.getLanes().size());
+    }
+}
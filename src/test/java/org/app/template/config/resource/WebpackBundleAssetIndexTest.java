@@ -0,0 +1,141 @@
+package org.app.template.config.resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class WebpackBundleAssetIndexTest {
+
+    @Rule
+    public TemporaryFolder baseDir = new TemporaryFolder();
+
+    private WebpackBundleFileCache fileCache;
+
+    private ExecutorService compressionExecutor;
+
+    private WebpackBundleAssetIndex assetIndex;
+
+    @Before
+    public void setUp() {
+        WebpackBundleConfig bundleConfig = new WebpackBundleConfig();
+        ReflectionTestUtils.setField(bundleConfig, "assetCompression", true);
+
+        fileCache = new WebpackBundleFileCache();
+        ReflectionTestUtils.setField(fileCache, "assetCacheDir", baseDir.getRoot().getAbsolutePath());
+        ReflectionTestUtils.invokeMethod(fileCache, "init");
+
+        compressionExecutor = mock(ExecutorService.class);
+        assetIndex = new WebpackBundleAssetIndex();
+        ReflectionTestUtils.setField(assetIndex, "bundleConfig", bundleConfig);
+        ReflectionTestUtils.setField(assetIndex, "fileCache", fileCache);
+        ReflectionTestUtils.setField(assetIndex, "compressionExecutor", compressionExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(fileCache, "destroy");
+    }
+
+    @Test
+    public void explicitEncodingIsAccepted() {
+        assertTrue(WebpackBundleAssetIndex.isAccepted("gzip, deflate, br", "br"));
+        assertTrue(WebpackBundleAssetIndex.isAccepted("GZIP;q=0.5", "gzip"));
+        assertFalse(WebpackBundleAssetIndex.isAccepted("gzip;q=0", "gzip"));
+        assertFalse(WebpackBundleAssetIndex.isAccepted("deflate", "gzip"));
+    }
+
+    @Test
+    public void wildcardAppliesToEncodingsNotListed() {
+        assertTrue(WebpackBundleAssetIndex.isAccepted("*", "gzip"));
+        assertTrue(WebpackBundleAssetIndex.isAccepted("br;q=0, *", "gzip"));
+        assertFalse(WebpackBundleAssetIndex.isAccepted("br;q=0, *", "br"));
+        assertFalse(WebpackBundleAssetIndex.isAccepted("*;q=0", "gzip"));
+        assertTrue(WebpackBundleAssetIndex.isAccepted("gzip, *;q=0", "gzip"));
+        assertFalse(WebpackBundleAssetIndex.isAccepted("gzip, *;q=0.0", "br"));
+    }
+
+    @Test
+    public void gzipIsCompressedInBackgroundToFileCache() throws IOException {
+        byte[] content = new byte[8 * 1024];
+        Arrays.fill(content, (byte) 'a');
+        WebpackBundleAsset asset = createAsset(content);
+
+        // original is served, until compression completes
+        assertNull(assetIndex.negotiateEncoding(asset, "gzip"));
+        assertNull(assetIndex.negotiateEncoding(asset, "gzip"));
+        assertSame(asset.getResource(), assetIndex.getEncodedResource(asset, WebpackBundleAssetIndex.ENCODING_GZIP));
+        runCompression();
+
+        assertEquals(WebpackBundleAssetIndex.ENCODING_GZIP, assetIndex.negotiateEncoding(asset, "gzip"));
+        Resource encoded = assetIndex.getEncodedResource(asset, WebpackBundleAssetIndex.ENCODING_GZIP);
+        assertTrue(encoded instanceof WebpackBundleEncodedResource);
+        File file = encoded.getFile();
+        assertTrue(file.toPath().startsWith(baseDir.getRoot().toPath()));
+        try (InputStream inputStream = new GZIPInputStream(encoded.getInputStream())) {
+            assertArrayEquals(content, StreamUtils.copyToByteArray(inputStream));
+        }
+    }
+
+    @Test
+    public void incompressibleResourceIsServedAsIs() {
+        byte[] content = new byte[8 * 1024];
+        new Random(42).nextBytes(content);
+        WebpackBundleAsset asset = createAsset(content);
+
+        assertNull(assetIndex.negotiateEncoding(asset, "gzip"));
+        runCompression();
+
+        assertNull(assetIndex.negotiateEncoding(asset, "gzip"));
+        assertSame(asset.getResource(), assetIndex.getEncodedResource(asset, WebpackBundleAssetIndex.ENCODING_GZIP));
+        verify(compressionExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void compressionIsNotScheduledWhenGzipIsNotAccepted() {
+        WebpackBundleAsset asset = createAsset("body { color: red }".concat(new String(new char[2048])).getBytes(StandardCharsets.UTF_8));
+
+        assertNull(assetIndex.negotiateEncoding(asset, "gzip;q=0, deflate"));
+
+        verify(compressionExecutor, never()).execute(any(Runnable.class));
+    }
+
+    /**
+     * Runs single scheduled compression task
+     * */
+    private void runCompression() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(compressionExecutor).execute(task.capture());
+        task.getValue().run();
+    }
+
+    private static WebpackBundleAsset createAsset(byte[] content) {
+        return new WebpackBundleAsset("app.js", "app.0123456789abcdef.js", "0123456789abcdef", content.length, new ByteArrayResource(content));
+    }
+}
@@ -0,0 +1,149 @@
+package org.app.template.config.resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class WebpackBundleAsyncWriterTest {
+
+    private static final int CHUNK_SIZE = 32 * 1024;
+
+    private AsyncContext asyncContext;
+
+    private ReadyLimitedOutputStream outputStream;
+
+    private byte[] content;
+
+    private WebpackBundleAsyncWriter writer;
+
+    @Before
+    public void setUp() {
+        asyncContext = mock(AsyncContext.class);
+        outputStream = new ReadyLimitedOutputStream();
+        content = new byte[CHUNK_SIZE * 3 + 100];
+        new Random(42).nextBytes(content);
+        writer = new WebpackBundleAsyncWriter(asyncContext, outputStream, ByteBuffer.wrap(content));
+    }
+
+    @Test
+    public void startRegistersListeners() {
+        writer.start();
+
+        verify(asyncContext).addListener(writer);
+        assertSame(writer, outputStream.writeListener);
+    }
+
+    @Test
+    public void contentIsWrittenInChunksAndCompleted() throws IOException {
+        outputStream.readyWrites = Integer.MAX_VALUE;
+
+        writer.onWritePossible();
+
+        assertEquals(4, outputStream.writes);
+        assertArrayEquals(content, outputStream.toByteArray());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void writingResumesWhenStreamIsReadyAgain() throws IOException {
+        outputStream.readyWrites = 2;
+        writer.onWritePossible();
+
+        assertEquals(2, outputStream.writes);
+        assertArrayEquals(Arrays.copyOf(content, CHUNK_SIZE * 2), outputStream.toByteArray());
+        verify(asyncContext, never()).complete();
+
+        outputStream.readyWrites = 2;
+        writer.onWritePossible();
+
+        assertEquals(4, outputStream.writes);
+        assertArrayEquals(content, outputStream.toByteArray());
+        verify(asyncContext, never()).complete();
+
+        // container calls listener again once last chunk is flushed
+        outputStream.readyWrites = 1;
+        writer.onWritePossible();
+
+        assertEquals(4, outputStream.writes);
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void partialContentIsWrittenFromPosition() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        buffer.position(10).limit(110);
+        writer = new WebpackBundleAsyncWriter(asyncContext, outputStream, buffer);
+        outputStream.readyWrites = Integer.MAX_VALUE;
+
+        writer.onWritePossible();
+
+        assertEquals(1, outputStream.writes);
+        assertArrayEquals(Arrays.copyOfRange(content, 10, 110), outputStream.toByteArray());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void errorAndTimeoutCompleteRequest() throws IOException {
+        writer.onError(new IOException("Broken pipe"));
+        writer.onTimeout(new AsyncEvent(asyncContext));
+
+        verify(asyncContext, times(2)).complete();
+    }
+
+    /**
+     * Output stream which is ready for given number of writes
+     * */
+    private static class ReadyLimitedOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private WriteListener writeListener;
+
+        private int readyWrites;
+
+        private int writes;
+
+        @Override
+        public boolean isReady() {
+            return readyWrites > 0;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.writeListener = writeListener;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            readyWrites--;
+            writes++;
+            buffer.write(b, off, len);
+        }
+
+        byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+}
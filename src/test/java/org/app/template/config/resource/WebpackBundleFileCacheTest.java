@@ -0,0 +1,82 @@
+package org.app.template.config.resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WebpackBundleFileCacheTest {
+
+    @Rule
+    public TemporaryFolder baseDir = new TemporaryFolder();
+
+    private final List<WebpackBundleFileCache> caches = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (WebpackBundleFileCache cache : caches) {
+            ReflectionTestUtils.invokeMethod(cache, "destroy");
+        }
+    }
+
+    @Test
+    public void staleFolderIsRemovedOnStart() throws IOException {
+        Path staleDir = Files.createDirectory(baseDir.getRoot().toPath().resolve("webpack-assets1"));
+        Files.createFile(staleDir.resolve("app.js"));
+
+        Path cacheDir = start();
+
+        assertFalse(Files.exists(staleDir));
+        assertEquals(1, listCacheDirs().size());
+        assertEquals(cacheDir, listCacheDirs().get(0));
+    }
+
+    @Test
+    public void folderOfRunningInstanceIsKept() throws IOException {
+        Path firstDir = start();
+        Path secondDir = start();
+
+        assertTrue(Files.isDirectory(firstDir));
+        assertTrue(Files.isDirectory(secondDir));
+        assertEquals(2, listCacheDirs().size());
+    }
+
+    @Test
+    public void folderIsDeletedOnShutdown() throws IOException {
+        Path cacheDir = start();
+
+        ReflectionTestUtils.invokeMethod(caches.remove(0), "destroy");
+
+        assertFalse(Files.exists(cacheDir));
+    }
+
+    /**
+     * @return cache folder of started instance
+     * */
+    private Path start() {
+        WebpackBundleFileCache cache = new WebpackBundleFileCache();
+        ReflectionTestUtils.setField(cache, "assetCacheDir", baseDir.getRoot().getAbsolutePath());
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        caches.add(cache);
+        return (Path) ReflectionTestUtils.getField(cache, "cacheDir");
+    }
+
+    private List<Path> listCacheDirs() throws IOException {
+        try (Stream<Path> paths = Files.list(baseDir.getRoot().toPath())) {
+            return paths.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.app.template.config.security;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CachingDaoAuthenticationProviderTest {
+
+    private static final String USERNAME = "user@mailinator.com";
+
+    private static final String PASSWORD = "secret";
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    /**
+     * Username to password hash, changed by tests to simulate password change
+     * */
+    private final Map<String, String> passwordHashes = new HashMap<>();
+
+    private final AtomicInteger userLoads = new AtomicInteger();
+
+    private CachingDaoAuthenticationProvider provider;
+
+    @Before
+    public void setUp() {
+        passwordHashes.put(USERNAME, passwordEncoder.encode(PASSWORD));
+        provider = new CachingDaoAuthenticationProvider(300, 100);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(username -> {
+            userLoads.incrementAndGet();
+            String passwordHash = passwordHashes.get(username);
+            if (passwordHash == null) {
+                throw new UsernameNotFoundException(username);
+            }
+            return new User(username, passwordHash, Collections.emptyList());
+        });
+    }
+
+    @Test
+    public void repeatedAuthenticationSkipsPasswordEncoder() {
+        Authentication first = provider.authenticate(token(PASSWORD));
+        Authentication second = provider.authenticate(token(PASSWORD));
+
+        assertTrue(first.isAuthenticated());
+        assertTrue(second.isAuthenticated());
+        assertEquals(1, provider.getPasswordVerifications());
+        assertEquals(1, provider.getCacheHits());
+    }
+
+    @Test
+    public void wrongPasswordIsNotCached() {
+        provider.authenticate(token(PASSWORD));
+
+        assertBadCredentials("wrong");
+        assertBadCredentials("wrong");
+        assertEquals(3, provider.getPasswordVerifications());
+        assertEquals(0, provider.getCacheHits());
+    }
+
+    @Test
+    public void passwordChangeInvalidatesVerifiedCredentials() {
+        provider.authenticate(token(PASSWORD));
+
+        passwordHashes.put(USERNAME, passwordEncoder.encode("changed"));
+
+        assertBadCredentials(PASSWORD);
+        assertFalse(provider.isVerified(USERNAME, PASSWORD));
+        assertTrue(provider.authenticate(token("changed")).isAuthenticated());
+        assertEquals(3, provider.getPasswordVerifications());
+        assertEquals(0, provider.getCacheHits());
+    }
+
+    @Test
+    public void invalidateAllForgetsVerifiedCredentials() {
+        provider.authenticate(token(PASSWORD));
+
+        provider.invalidateAll();
+        provider.authenticate(token(PASSWORD));
+
+        assertEquals(2, provider.getPasswordVerifications());
+        assertEquals(0, provider.getCacheHits());
+    }
+
+    @Test
+    public void isVerifiedOnlyAfterSuccessfulAuthentication() {
+        assertFalse(provider.isVerified(USERNAME, PASSWORD));
+
+        provider.authenticate(token(PASSWORD));
+
+        assertTrue(provider.isVerified(USERNAME, PASSWORD));
+        assertFalse(provider.isVerified(USERNAME, "wrong"));
+        assertFalse(provider.isVerified("unknown@mailinator.com", PASSWORD));
+    }
+
+    /**
+     * Login admission checks every Basic request, so unknown users must not reach user details service
+     * */
+    @Test
+    public void isVerifiedDoesNotLoadUser() {
+        provider.authenticate(token(PASSWORD));
+        userLoads.set(0);
+
+        assertTrue(provider.isVerified(USERNAME, PASSWORD));
+        assertFalse(provider.isVerified("unknown@mailinator.com", PASSWORD));
+        assertEquals(0, userLoads.get());
+    }
+
+    @Test
+    public void passwordIsVerifiedOnExecutor() {
+        ThreadPoolExecutor executor = createSingleThreadExecutor();
+        try {
+            provider.setPasswordVerificationExecutor(executor);
+
+            assertTrue(provider.authenticate(token(PASSWORD)).isAuthenticated());
+            assertEquals(1, executor.getTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void saturatedExecutorRejectsAtOnce() throws InterruptedException {
+        ThreadPoolExecutor executor = createSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturate(executor, release);
+            provider.setPasswordVerificationExecutor(executor);
+
+            try {
+                provider.authenticate(token(PASSWORD));
+                fail("Authentication must fail when verification executor is saturated");
+            } catch (AuthenticationServiceException expected) {
+                // expected
+            }
+            assertEquals(1, provider.getRejectedVerifications());
+            assertEquals(0, provider.getPasswordVerifications());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Dummy match, which equalises timing of unknown user, goes to executor too
+     * */
+    @Test
+    public void unknownUserIsRejectedBySaturatedExecutor() throws InterruptedException {
+        ThreadPoolExecutor executor = createSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturate(executor, release);
+            provider.setPasswordVerificationExecutor(executor);
+
+            try {
+                provider.authenticate(new UsernamePasswordAuthenticationToken("unknown@mailinator.com", PASSWORD));
+                fail("Authentication must fail when verification executor is saturated");
+            } catch (AuthenticationServiceException expected) {
+                // expected
+            }
+            assertEquals(1, provider.getRejectedVerifications());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void unknownUserRunsDummyMatchOnExecutor() {
+        ThreadPoolExecutor executor = createSingleThreadExecutor();
+        try {
+            provider.setPasswordVerificationExecutor(executor);
+
+            try {
+                provider.authenticate(new UsernamePasswordAuthenticationToken("unknown@mailinator.com", PASSWORD));
+                fail("Authentication of unknown user must fail");
+            } catch (BadCredentialsException expected) {
+                // expected, user not found is hidden
+            }
+            assertEquals(1, provider.getPasswordVerifications());
+            assertEquals(1, executor.getTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes the only thread of executor until latch is released
+     * */
+    private static void saturate(ThreadPoolExecutor executor, CountDownLatch release) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+    }
+
+    private static ThreadPoolExecutor createSingleThreadExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private void assertBadCredentials(String password) {
+        try {
+            provider.authenticate(token(password));
+            fail("Authentication with wrong password must fail");
+        } catch (BadCredentialsException expected) {
+            // expected
+        }
+    }
+
+    private static UsernamePasswordAuthenticationToken token(String password) {
+        return new UsernamePasswordAuthenticationToken(USERNAME, password);
+    }
+}
@@ -0,0 +1,104 @@
+package org.app.template.config.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import javax.servlet.ServletException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoginAdmissionFilterTest {
+
+    private static final String LOGIN_PROCESSING_URL = "/process-login";
+
+    private static final String USERNAME = "user@mailinator.com";
+
+    private static final String PASSWORD = "secret";
+
+    private static final int ACCOUNT_BURST = 2;
+
+    private CachingDaoAuthenticationProvider authenticationProvider;
+
+    private LoginAdmissionFilter filter;
+
+    @Before
+    public void setUp() {
+        authenticationProvider = mock(CachingDaoAuthenticationProvider.class);
+        filter = new LoginAdmissionFilter(LOGIN_PROCESSING_URL, "email",
+                new TokenBucketLimiter(60, 100, 100),
+                new TokenBucketLimiter(1, ACCOUNT_BURST, 100),
+                authenticationProvider);
+    }
+
+    @Test
+    public void formLoginIsLimitedPerAccount() throws IOException, ServletException {
+        for (int i = 0; i < ACCOUNT_BURST; i++) {
+            assertEquals(HttpStatus.OK.value(), filter(formLogin(USERNAME)).getStatus());
+        }
+
+        MockHttpServletResponse rejected = filter(formLogin(USERNAME.toUpperCase()));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertNotNull(rejected.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, filter.getRejectedByAccount());
+    }
+
+    @Test
+    public void basicRequestWithVerifiedCredentialsIsNotCharged() throws IOException, ServletException {
+        when(authenticationProvider.isVerified(USERNAME, PASSWORD)).thenReturn(true);
+
+        for (int i = 0; i < ACCOUNT_BURST * 10; i++) {
+            assertEquals(HttpStatus.OK.value(), filter(basic(USERNAME, PASSWORD)).getStatus());
+        }
+        assertEquals(0, filter.getBuckets());
+    }
+
+    @Test
+    public void basicRequestWithUnverifiedCredentialsIsCharged() throws IOException, ServletException {
+        when(authenticationProvider.isVerified(USERNAME, PASSWORD)).thenReturn(false);
+
+        for (int i = 0; i < ACCOUNT_BURST; i++) {
+            assertEquals(HttpStatus.OK.value(), filter(basic(USERNAME, PASSWORD)).getStatus());
+        }
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), filter(basic(USERNAME, PASSWORD)).getStatus());
+    }
+
+    @Test
+    public void requestWithoutCredentialsIsNotCharged() throws IOException, ServletException {
+        for (int i = 0; i < ACCOUNT_BURST * 10; i++) {
+            assertEquals(HttpStatus.OK.value(), filter(new MockHttpServletRequest("GET", "/")).getStatus());
+        }
+        assertEquals(0, filter.getBuckets());
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest formLogin(String username) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", LOGIN_PROCESSING_URL);
+        request.setServletPath(LOGIN_PROCESSING_URL);
+        request.addParameter("email", username);
+        request.addParameter("password", PASSWORD);
+        return request;
+    }
+
+    private static MockHttpServletRequest basic(String username, String password) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/list");
+        request.addHeader(HttpHeaders.AUTHORIZATION,
+                "Basic " + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8)));
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package org.app.template.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.app.template.config.security.SessionTokenCodec.SessionToken;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SessionTokenCodecTest {
+
+    private static final byte[] OLD_SECRET = "old-secret-old-secret-old-secret".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] NEW_SECRET = "new-secret-new-secret-new-secret".getBytes(StandardCharsets.US_ASCII);
+
+    private static final SessionToken TOKEN = new SessionToken(42, "user@mailinator.com", 5, 1500000000);
+
+    @Test
+    public void tokenSurvivesRoundTrip() {
+        SessionTokenCodec codec = codec("old", OLD_SECRET);
+
+        SessionToken decoded = codec.decode(codec.encode(TOKEN));
+
+        assertNotNull(decoded);
+        assertEquals(TOKEN.getUserId(), decoded.getUserId());
+        assertEquals(TOKEN.getEmail(), decoded.getEmail());
+        assertEquals(TOKEN.getPermissions(), decoded.getPermissions());
+        assertEquals(TOKEN.getIssuedAt(), decoded.getIssuedAt());
+    }
+
+    @Test
+    public void tamperedSignatureIsRejected() {
+        SessionTokenCodec codec = codec("old", OLD_SECRET);
+        String value = codec.encode(TOKEN);
+
+        int signatureIdx = value.lastIndexOf('.') + 1;
+        char replacement = value.charAt(signatureIdx) == 'A' ? 'B' : 'A';
+        String tampered = value.substring(0, signatureIdx) + replacement + value.substring(signatureIdx + 1);
+
+        assertNull(codec.decode(tampered));
+    }
+
+    @Test
+    public void tamperedPayloadIsRejected() {
+        SessionTokenCodec codec = codec("old", OLD_SECRET);
+        String value = codec.encode(TOKEN);
+        String other = codec.encode(new SessionToken(1, TOKEN.getEmail(), -1L, TOKEN.getIssuedAt()));
+
+        // payload of other token with signature of original one
+        String tampered = other.substring(0, other.lastIndexOf('.')) + value.substring(value.lastIndexOf('.'));
+
+        assertNull(codec.decode(tampered));
+    }
+
+    @Test
+    public void malformedValueIsRejected() {
+        SessionTokenCodec codec = codec("old", OLD_SECRET);
+
+        assertNull(codec.decode(""));
+        assertNull(codec.decode("old"));
+        assertNull(codec.decode("old.payload"));
+        assertNull(codec.decode("old.!!!.!!!"));
+    }
+
+    @Test
+    public void tokenSignedWithUnknownKeyIsRejected() {
+        String value = codec("other", NEW_SECRET).encode(TOKEN);
+
+        assertNull(codec("old", OLD_SECRET).decode(value));
+    }
+
+    @Test
+    public void tokenSignedWithSameKeyIdButOtherSecretIsRejected() {
+        String value = codec("old", NEW_SECRET).encode(TOKEN);
+
+        assertNull(codec("old", OLD_SECRET).decode(value));
+    }
+
+    @Test
+    public void rotatedKeySignsNewTokensAndVerifiesOldOnes() {
+        String oldValue = codec("old", OLD_SECRET).encode(TOKEN);
+
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        keys.put("new", NEW_SECRET);
+        keys.put("old", OLD_SECRET);
+        SessionTokenCodec rotated = new SessionTokenCodec(keys);
+
+        assertNotNull(rotated.decode(oldValue));
+        String newValue = rotated.encode(TOKEN);
+        assertTrue(newValue.startsWith("new."));
+        assertNotNull(rotated.decode(newValue));
+
+        // old key is retired
+        assertNull(codec("new", NEW_SECRET).decode(oldValue));
+    }
+
+    @Test
+    public void keysAreParsedInOrder() {
+        Base64.Encoder encoder = Base64.getEncoder();
+        Map<String, byte[]> keys = SessionTokenCodec.parseKeys(
+                "new:" + encoder.encodeToString(NEW_SECRET) + ", old:" + encoder.encodeToString(OLD_SECRET));
+
+        assertEquals(2, keys.size());
+        assertEquals("new", keys.keySet().iterator().next());
+        assertArrayEquals(NEW_SECRET, keys.get("new"));
+        assertArrayEquals(OLD_SECRET, keys.get("old"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyWithoutIdIsRejected() {
+        SessionTokenCodec.parseKeys(Base64.getEncoder().encodeToString(OLD_SECRET));
+    }
+
+    private static SessionTokenCodec codec(String keyId, byte[] secret) {
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        keys.put(keyId, secret);
+        return new SessionTokenCodec(keys);
+    }
+}
@@ -0,0 +1,151 @@
+package org.app.template.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.Cookie;
+
+import org.app.template.acl.Permission;
+import org.app.template.config.security.SessionTokenCodec.SessionToken;
+import org.app.template.data.domain.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SignedCookieSecurityContextRepositoryTest {
+
+    private static final String COOKIE_NAME = "APP_SESSION";
+
+    private static final long TTL = 3600;
+
+    private static final String EMAIL = "user@mailinator.com";
+
+    private static final long PERMISSIONS = Permission.VIEW_USER_LIST.getMask() | Permission.VIEW_METRICS.getMask();
+
+    private SessionTokenCodec codec;
+
+    private SignedCookieSecurityContextRepository repository;
+
+    @Before
+    public void setUp() {
+        codec = new SessionTokenCodec(Collections.singletonMap("k1", "secret-secret-secret-secret".getBytes(StandardCharsets.US_ASCII)));
+        repository = new SignedCookieSecurityContextRepository(codec, username -> {
+            throw new UsernameNotFoundException(username);
+        }, COOKIE_NAME, TTL);
+    }
+
+    @Test
+    public void validTokenRestoresPrincipal() {
+        MockHttpServletRequest request = requestWithToken(getNow());
+
+        SecurityContext context = repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+
+        Authentication authentication = context.getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.isAuthenticated());
+        User user = (User) authentication.getPrincipal();
+        assertEquals(Long.valueOf(42), user.getId());
+        assertEquals(EMAIL, user.getEmail());
+        assertEquals(PERMISSIONS, user.getPermissions());
+        assertEquals(2, authentication.getAuthorities().size());
+        assertTrue(repository.containsContext(request));
+    }
+
+    @Test
+    public void expiredTokenGivesEmptyContext() {
+        MockHttpServletRequest request = requestWithToken(getNow() - TTL);
+
+        SecurityContext context = repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+
+        assertNull(context.getAuthentication());
+        assertFalse(repository.containsContext(request));
+    }
+
+    @Test
+    public void forgedTokenGivesEmptyContext() {
+        SessionTokenCodec otherCodec = new SessionTokenCodec(Collections.singletonMap("k1", "other-other-other-other".getBytes(StandardCharsets.US_ASCII)));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(COOKIE_NAME, otherCodec.encode(new SessionToken(42, EMAIL, -1L, getNow()))));
+
+        SecurityContext context = repository.loadContext(new HttpRequestResponseHolder(request, new MockHttpServletResponse()));
+
+        assertNull(context.getAuthentication());
+    }
+
+    @Test
+    public void freshAuthenticationIsSavedToCookie() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+        repository.loadContext(holder);
+
+        User user = new User();
+        user.setId(42L);
+        user.setEmail(EMAIL);
+        user.setPassword("hash");
+        user.setPermissions(PERMISSIONS);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new UsernamePasswordAuthenticationToken(user, "secret", user.getAuthorities()));
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+
+        Cookie cookie = response.getCookie(COOKIE_NAME);
+        assertNotNull(cookie);
+        assertTrue(cookie.isHttpOnly());
+        assertEquals((int) TTL, cookie.getMaxAge());
+        SessionToken token = codec.decode(cookie.getValue());
+        assertNotNull(token);
+        assertEquals(42, token.getUserId());
+        assertEquals(EMAIL, token.getEmail());
+        assertEquals(PERMISSIONS, token.getPermissions());
+    }
+
+    @Test
+    public void recentTokenIsNotReissued() {
+        MockHttpServletRequest request = requestWithToken(getNow());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+
+        SecurityContext context = repository.loadContext(holder);
+        repository.saveContext(context, holder.getRequest(), holder.getResponse());
+
+        assertNull(response.getCookie(COOKIE_NAME));
+    }
+
+    @Test
+    public void logoutClearsCookie() {
+        MockHttpServletRequest request = requestWithToken(getNow());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HttpRequestResponseHolder holder = new HttpRequestResponseHolder(request, response);
+        repository.loadContext(holder);
+
+        repository.saveContext(SecurityContextHolder.createEmptyContext(), holder.getRequest(), holder.getResponse());
+
+        Cookie cookie = response.getCookie(COOKIE_NAME);
+        assertNotNull(cookie);
+        assertEquals(0, cookie.getMaxAge());
+        assertEquals("", cookie.getValue());
+    }
+
+    private MockHttpServletRequest requestWithToken(long issuedAt) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(COOKIE_NAME, codec.encode(new SessionToken(42, EMAIL, PERMISSIONS, issuedAt))));
+        return request;
+    }
+
+    private static long getNow() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
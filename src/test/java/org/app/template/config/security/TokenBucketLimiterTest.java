@@ -0,0 +1,79 @@
+package org.app.template.config.security;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketLimiterTest {
+
+    /**
+     * One token per 100 ms
+     * */
+    private static final int PERMITS_PER_MINUTE = 600;
+
+    private static final long REFILL_MILLIS = 150;
+
+    @Test
+    public void burstIsAdmittedAtOnce() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(PERMITS_PER_MINUTE, 3, 100);
+
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.getWaitNanos("a") > 0);
+    }
+
+    @Test
+    public void bucketsAreIndependent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(PERMITS_PER_MINUTE, 1, 100);
+
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+        assertEquals(0, limiter.getWaitNanos("c"));
+    }
+
+    @Test
+    public void tokenIsRefilledAtRate() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(PERMITS_PER_MINUTE, 1, 100);
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+
+        Thread.sleep(REFILL_MILLIS);
+
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+    }
+
+    @Test
+    public void newKeysAreAdmittedWhenFull() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(PERMITS_PER_MINUTE, 1, 1);
+        int keys = 1000;
+        for (int i = 0; i < keys; i++) {
+            assertTrue(limiter.tryAcquire("key" + i));
+        }
+        // every stripe holds one bucket, busy buckets are evicted for new keys
+        assertTrue(limiter.size() < keys);
+
+        assertTrue(limiter.tryAcquire("fresh"));
+        assertFalse(limiter.tryAcquire("fresh"));
+    }
+
+    @Test
+    public void idleBucketsAreEvictedWhenFull() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(PERMITS_PER_MINUTE, 1, 1);
+        int keys = 1000;
+        for (int i = 0; i < keys; i++) {
+            limiter.tryAcquire("key" + i);
+        }
+        int size = limiter.size();
+
+        Thread.sleep(REFILL_MILLIS);
+
+        assertTrue(limiter.tryAcquire("fresh"));
+        assertTrue(limiter.size() <= size);
+    }
+}
@@ -0,0 +1,96 @@
+package org.app.template.config.startup;
+
+import liquibase.exception.LiquibaseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ChecksumSkippingLiquibaseTest {
+
+    private static final String CHANGE_LOG = "classpath:db/checksum-test/changelog.xml";
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void firstRunMigratesAndStoresChecksum() throws LiquibaseException {
+        migrate(true, "test");
+
+        assertEquals(0, count("sample"));
+        assertEquals(2, count("DATABASECHANGELOG"));
+        assertNotNull(readChecksum());
+    }
+
+    @Test
+    public void unchangedChangelogIsSkipped() throws LiquibaseException {
+        migrate(true, "test");
+        jdbcTemplate.update("delete from DATABASECHANGELOG");
+
+        migrate(true, "test");
+
+        // Liquibase would have marked both change sets as ran again
+        assertEquals(0, count("DATABASECHANGELOG"));
+    }
+
+    @Test
+    public void changedChecksumRunsMigration() throws LiquibaseException {
+        migrate(true, "test");
+        String checksum = readChecksum();
+        jdbcTemplate.update("delete from DATABASECHANGELOG");
+
+        // contexts are part of checksum
+        migrate(true, "test,other");
+
+        assertEquals(2, count("DATABASECHANGELOG"));
+        assertNotEquals(checksum, readChecksum());
+    }
+
+    @Test
+    public void migrationRunsWhenSkippingIsDisabled() throws LiquibaseException {
+        migrate(false, "test");
+        jdbcTemplate.update("delete from DATABASECHANGELOG");
+
+        migrate(false, "test");
+
+        assertEquals(2, count("DATABASECHANGELOG"));
+        assertEquals(0, count("changelog_checksum"));
+    }
+
+    private void migrate(boolean skipUnchanged, String contexts) throws LiquibaseException {
+        ChecksumSkippingLiquibase liquibase = new ChecksumSkippingLiquibase(skipUnchanged);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.setDataSource(database);
+        liquibase.setChangeLog(CHANGE_LOG);
+        liquibase.setContexts(contexts);
+        liquibase.afterPropertiesSet();
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Integer.class);
+    }
+
+    private String readChecksum() {
+        return jdbcTemplate.queryForObject("select checksum from changelog_checksum where name = 'changelog'", String.class);
+    }
+}
@@ -0,0 +1,116 @@
+package org.app.template.data;
+
+import java.util.List;
+import java.util.Properties;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.app.template.data.domain.User;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Embedded H2 database with application entities, schema is created by Hibernate.
+ * Entity manager is shared (transactional) one, like {@code @PersistenceContext} injects.
+ */
+public class JpaTestDatabase {
+
+    private final EmbeddedDatabase dataSource;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final EntityManager entityManager;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public JpaTestDatabase() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        // "user" table name is reserved in H2
+        properties.setProperty("hibernate.globally_quoted_identifiers", "true");
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(User.class.getPackage().getName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+
+        entityManagerFactory = factoryBean.getObject();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public EntityManagerFactory getEntityManagerFactory() {
+        return entityManagerFactory;
+    }
+
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    public <T> T inTransaction(TransactionCallback<T> callback) {
+        return new TransactionTemplate(transactionManager).execute(callback);
+    }
+
+    /**
+     * @return persisted user
+     * */
+    public User createUser(String firstName, String secondName, String email) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setSecondName(secondName);
+        user.setEmail(email);
+        user.setPassword("hash");
+        return inTransaction(status -> {
+            entityManager.persist(user);
+            return user;
+        });
+    }
+
+    /**
+     * Creates tables of permissions changelog, which have no entities, with roles ADMIN and USER
+     * */
+    public void createRoles() {
+        inTransaction(status -> {
+            entityManager.createNativeQuery("create table role (id bigint primary key, name varchar(64) not null unique)").executeUpdate();
+            entityManager.createNativeQuery("create table user_role (user_id bigint not null, role_id bigint not null, primary key (user_id, role_id))")
+                    .executeUpdate();
+            entityManager.createNativeQuery("insert into role (id, name) values (1, 'ADMIN'), (2, 'USER')").executeUpdate();
+            return null;
+        });
+    }
+
+    /**
+     * @return role names of user
+     * */
+    @SuppressWarnings("unchecked")
+    public List<String> findRoles(Long userId) {
+        return inTransaction(status -> entityManager
+                .createNativeQuery("select r.name from user_role ur join role r on r.id = ur.role_id where ur.user_id = ? order by r.name")
+                .setParameter(1, userId)
+                .getResultList());
+    }
+
+    public void close() {
+        entityManagerFactory.close();
+        dataSource.shutdown();
+    }
+}
@@ -0,0 +1,164 @@
+package org.app.template.data.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.app.template.data.JpaTestDatabase;
+import org.app.template.data.domain.User;
+import org.app.template.data.domain.QUser;
+import org.app.template.data.view.UserView;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class UserRepositoryImplTest {
+
+    private JpaTestDatabase database;
+
+    private UserRepositoryImpl repository;
+
+    /**
+     * Ids of created users in ascending order
+     * */
+    private final List<Long> ids = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        database = new JpaTestDatabase();
+        repository = new UserRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "entityManager", database.getEntityManager());
+        // H2 rejects MySQL streaming fetch size
+        ReflectionTestUtils.setField(repository, "streamFetchSize", 2);
+
+        ids.add(database.createUser("Anna", "Smith", "anna@mailinator.com").getId());
+        ids.add(database.createUser("Boris", "Ivanov", "boris@mailinator.com").getId());
+        ids.add(database.createUser("Bella", "Swan", "bella@mailinator.com").getId());
+        ids.add(database.createUser("Carl", "Sagan", "carl@mailinator.com").getId());
+        ids.add(database.createUser("Dmitry", "Orlov", "dmitry@mailinator.com").getId());
+        Collections.sort(ids);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void allUsersAreStreamedInIdOrderAndDetached() {
+        List<Long> streamedIds = new ArrayList<>();
+        List<User> streamedUsers = new ArrayList<>();
+        repository.forEachUser(null, user -> {
+            streamedIds.add(user.getId());
+            streamedUsers.add(user);
+        });
+
+        assertEquals(ids, streamedIds);
+        for (User user : streamedUsers) {
+            assertFalse(database.getEntityManager().contains(user));
+        }
+    }
+
+    @Test
+    public void firstPageContinuesAfterItsLastItem() {
+        KeysetPage<UserView> page = repository.findPage(null, null, 2);
+
+        assertEquals(ids.subList(0, 2), getIds(page.getItems()));
+        assertEquals(ids.get(1), page.getNextAfterId());
+    }
+
+    @Test
+    public void nextPageStartsAfterGivenId() {
+        KeysetPage<UserView> page = repository.findPage(null, ids.get(1), 2);
+
+        assertEquals(ids.subList(2, 4), getIds(page.getItems()));
+        assertEquals(ids.get(3), page.getNextAfterId());
+    }
+
+    /**
+     * Extra row of limit + 1 is absent, so there is no next page even though page is full
+     * */
+    @Test
+    public void fullLastPageHasNoNextPage() {
+        KeysetPage<UserView> page = repository.findPage(null, ids.get(2), 2);
+
+        assertEquals(ids.subList(3, 5), getIds(page.getItems()));
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    public void pageAfterLastIdIsEmpty() {
+        KeysetPage<UserView> page = repository.findPage(null, ids.get(4), 2);
+
+        assertEquals(Collections.emptyList(), getIds(page.getItems()));
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    public void filterIsAppliedBeforeLimit() {
+        KeysetPage<UserView> page = repository.findPage(QUser.user.email.startsWith("b"), null, 1);
+
+        assertEquals(Collections.singletonList(ids.get(1)), getIds(page.getItems()));
+        assertEquals(ids.get(1), page.getNextAfterId());
+
+        page = repository.findPage(QUser.user.email.startsWith("b"), page.getNextAfterId(), 1);
+
+        assertEquals(Collections.singletonList(ids.get(2)), getIds(page.getItems()));
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    public void pageSizeOfAllRowsHasNoNextPage() {
+        KeysetPage<UserView> page = repository.findPage(null, null, ids.size());
+
+        assertEquals(ids, getIds(page.getItems()));
+        assertNull(page.getNextAfterId());
+    }
+
+    @Test
+    public void viewHasDisplayedColumns() {
+        UserView view = repository.findView(QUser.user.email.eq("carl@mailinator.com"));
+
+        assertEquals(ids.get(3), view.getId());
+        assertEquals("Carl", view.getFirstName());
+        assertEquals("Sagan", view.getSecondName());
+        assertEquals("carl@mailinator.com", view.getEmail());
+        assertNull(repository.findView(QUser.user.email.eq("unknown@mailinator.com")));
+    }
+
+    @Test
+    public void viewsByIdsAreOrderedById() {
+        List<UserView> views = repository.findViewsByIds(Arrays.asList(ids.get(4), ids.get(0), -1L));
+
+        assertEquals(Arrays.asList(ids.get(0), ids.get(4)), getIds(views));
+        assertEquals(Collections.emptyList(), repository.findViewsByIds(Collections.<Long>emptyList()));
+    }
+
+    @Test
+    public void defaultRoleIsAssignedToGivenUsers() {
+        database.createRoles();
+
+        database.inTransaction(status -> {
+            repository.assignDefaultRole(ids.subList(0, 2));
+            return null;
+        });
+
+        assertEquals(Collections.singletonList(UserRepositoryCustom.DEFAULT_ROLE), database.findRoles(ids.get(0)));
+        assertEquals(Collections.singletonList(UserRepositoryCustom.DEFAULT_ROLE), database.findRoles(ids.get(1)));
+        assertEquals(Collections.emptyList(), database.findRoles(ids.get(2)));
+    }
+
+    private static List<Long> getIds(List<UserView> users) {
+        List<Long> ids = new ArrayList<>();
+        for (UserView user : users) {
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+}
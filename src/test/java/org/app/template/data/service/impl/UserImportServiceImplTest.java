@@ -0,0 +1,164 @@
+package org.app.template.data.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.app.template.data.JpaTestDatabase;
+import org.app.template.data.domain.User;
+import org.app.template.data.repository.UserRepository;
+import org.app.template.data.repository.UserRepositoryCustom;
+import org.app.template.data.repository.UserRepositoryImpl;
+import org.app.template.data.service.UserImportResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+
+public class UserImportServiceImplTest {
+
+    private static final String HEADER = "firstName,secondName,email,password\n";
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private JpaTestDatabase database;
+
+    private UserImportServiceImpl importService;
+
+    @Before
+    public void setUp() {
+        database = new JpaTestDatabase();
+        database.createRoles();
+        UserRepositoryImpl repositoryImpl = new UserRepositoryImpl();
+        ReflectionTestUtils.setField(repositoryImpl, "entityManager", database.getEntityManager());
+        // custom repository methods only
+        UserRepository userRepository = mock(UserRepository.class, delegatesTo(repositoryImpl));
+
+        importService = new UserImportServiceImpl(passwordEncoder, userRepository, database.getTransactionManager());
+        ReflectionTestUtils.setField(importService, "entityManager", database.getEntityManager());
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.invokeMethod(importService, "init");
+    }
+
+    @After
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(importService, "destroy");
+        database.close();
+    }
+
+    @Test
+    public void rowsAreImportedAcrossBatches() throws IOException {
+        UserImportResult result = importService.importUsers(csv(HEADER
+                + "Anna,Smith,anna@mailinator.com,secret1\n"
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"
+                + "Carl,Sagan,carl@mailinator.com,secret3\n"));
+
+        assertEquals(3, result.getImported());
+        List<User> users = findUsers();
+        assertEquals(3, users.size());
+        assertEquals("carl@mailinator.com", users.get(2).getEmail());
+        assertEquals("Sagan", users.get(2).getSecondName());
+        assertTrue(passwordEncoder.matches("secret3", users.get(2).getPassword()));
+    }
+
+    @Test
+    public void importedUsersGetDefaultRole() throws IOException {
+        Long existingId = database.createUser("Anna", "Smith", "anna@mailinator.com").getId();
+
+        importService.importUsers(csv(HEADER
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"
+                + "Carl,Sagan,carl@mailinator.com,secret3\n"
+                + "Dmitry,Orlov,dmitry@mailinator.com,secret4\n"));
+
+        for (User user : findUsers()) {
+            if (user.getId().equals(existingId)) {
+                assertEquals(Collections.emptyList(), database.findRoles(user.getId()));
+            } else {
+                assertEquals(Collections.singletonList(UserRepositoryCustom.DEFAULT_ROLE), database.findRoles(user.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void emptyFileImportsNothing() throws IOException {
+        assertEquals(0, importService.importUsers(csv(HEADER)).getImported());
+        assertEquals(0, findUsers().size());
+    }
+
+    @Test
+    public void invalidRowsAreReportedAndSkipped() throws IOException {
+        UserImportResult result = importService.importUsers(csv(HEADER
+                + "Anna,Smith,anna@mailinator.com,secret1\n"
+                + "Boris,Ivanov,boris@mailinator.com,\n"
+                + " ,Sagan,carl@mailinator.com,secret3\n"
+                + "Dmitry,Orlov,dmitry@mailinator.com,secret4\n"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertRowError(result.getErrors().get(0), 3, "Column password is required");
+        assertRowError(result.getErrors().get(1), 4, "Column firstName is required");
+        assertEquals(2, findUsers().size());
+    }
+
+    @Test
+    public void duplicateEmailsAreRejected() throws IOException {
+        UserImportResult result = importService.importUsers(csv(HEADER
+                + "Anna,Smith,anna@mailinator.com,secret1\n"
+                + "Anna,Smith,ANNA@mailinator.com ,secret1\n"
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, result.getErrors().get(0).getRow());
+        assertEquals(5, result.getErrors().get(1).getRow());
+        assertEquals(2, findUsers().size());
+    }
+
+    @Test
+    public void duplicateOfPreviousBatchIsRejectedAsExisting() throws IOException {
+        UserImportResult result = importService.importUsers(csv(HEADER
+                + "Anna,Smith,anna@mailinator.com,secret1\n"
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"
+                + "Anna,Smith,anna@mailinator.com,secret1\n"));
+
+        assertEquals(2, result.getImported());
+        assertRowError(result.getErrors().get(0), 4, "User with this email already exists");
+        assertEquals(2, findUsers().size());
+    }
+
+    @Test
+    public void existingEmailIsRejectedBeforeHashing() throws IOException {
+        database.createUser("Anna", "Smith", "anna@mailinator.com");
+
+        UserImportResult result = importService.importUsers(csv(HEADER
+                + "Anna,Smith,anna@mailinator.com,secret1\n"
+                + "Boris,Ivanov,boris@mailinator.com,secret2\n"));
+
+        assertEquals(1, result.getImported());
+        assertRowError(result.getErrors().get(0), 2, "User with this email already exists");
+        assertEquals(2, findUsers().size());
+    }
+
+    private static void assertRowError(UserImportResult.RowError error, long row, String message) {
+        assertEquals(row, error.getRow());
+        assertEquals(message, error.getMessage());
+    }
+
+    private List<User> findUsers() {
+        return database.getEntityManager().createQuery("select u from User u order by u.id", User.class).getResultList();
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,176 @@
+package org.app.template.data.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.persistence.EntityManagerFactory;
+
+import org.app.template.data.domain.User;
+import org.app.template.data.repository.UserRepository;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class UserSearchServiceImplTest {
+
+    private final List<User> users = new ArrayList<>();
+
+    /**
+     * Runs after users are read by index build, before it publishes
+     * */
+    private Runnable duringBuild = () -> {
+    };
+
+    private UserSearchServiceImpl searchService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        users.add(createUser(1L, "Anna", "Smith", "anna@mailinator.com"));
+        users.add(createUser(2L, "Boris", "Ivanov", "boris@mailinator.com"));
+        users.add(createUser(3L, "Anatoly", "Karpov", "karpov@mailinator.com"));
+
+        UserRepository userRepository = mock(UserRepository.class);
+        doAnswer(invocation -> {
+            users.forEach(invocation.<Consumer<User>>getArgument(1));
+            duringBuild.run();
+            return null;
+        }).when(userRepository).forEachUser(isNull(), any(Consumer.class));
+
+        searchService = new UserSearchServiceImpl(userRepository, mock(EntityManagerFactory.class));
+    }
+
+    @Test
+    public void prefixMatchesAnyTermCaseInsensitive() {
+        searchService.buildIndex();
+
+        assertEquals(Arrays.asList(1L, 3L), sorted(searchService.search("an", 10)));
+        assertEquals(Collections.singletonList(2L), searchService.search("  IVA", 10));
+        assertEquals(Collections.singletonList(3L), searchService.search("anatoly   kar", 10));
+        assertEquals(Collections.singletonList(2L), searchService.search("boris@", 10));
+        assertEquals(Collections.emptyList(), searchService.search("zz", 10));
+        assertEquals(Collections.emptyList(), searchService.search(" ", 10));
+    }
+
+    @Test
+    public void resultIsLimited() {
+        searchService.buildIndex();
+
+        assertEquals(1, searchService.search("a", 1).size());
+        assertEquals(2, searchService.search("a", 10).size());
+        assertEquals(Collections.emptyList(), searchService.search("a", 0));
+    }
+
+    @Test
+    public void insertedUserIsFound() {
+        searchService.buildIndex();
+
+        searchService.onPostInsert(insertEvent(createUser(4L, "Anton", "Chekhov", "anton@mailinator.com")));
+
+        assertEquals(Collections.singletonList(4L), searchService.search("chek", 10));
+        assertEquals(Arrays.asList(1L, 3L, 4L), sorted(searchService.search("an", 10)));
+    }
+
+    @Test
+    public void updatedUserIsFoundByNewTermsOnly() {
+        searchService.buildIndex();
+
+        searchService.onPostUpdate(updateEvent(createUser(2L, "Boris", "Petrov", "boris@mailinator.com")));
+
+        assertEquals(Collections.emptyList(), searchService.search("ivanov", 10));
+        assertEquals(Collections.singletonList(2L), searchService.search("petr", 10));
+        assertEquals(Collections.singletonList(2L), searchService.search("boris", 10));
+    }
+
+    @Test
+    public void deletedUserIsNotFound() {
+        searchService.buildIndex();
+
+        searchService.onPostDelete(deleteEvent(users.get(0)));
+
+        assertEquals(Collections.singletonList(3L), searchService.search("an", 10));
+        assertEquals(Collections.emptyList(), searchService.search("smith", 10));
+    }
+
+    /**
+     * Terms of user, which was updated by listener before build publishes, are not overwritten by stale ones
+     * */
+    @Test
+    public void buildKeepsUserUpdatedDuringBuild() {
+        searchService.onPostUpdate(updateEvent(createUser(2L, "Boris", "Petrov", "boris@mailinator.com")));
+
+        searchService.buildIndex();
+
+        assertEquals(Collections.emptyList(), searchService.search("ivanov", 10));
+        assertEquals(Collections.singletonList(2L), searchService.search("petrov", 10));
+        assertEquals(Arrays.asList(1L, 3L), sorted(searchService.search("an", 10)));
+    }
+
+    /**
+     * User, which was read by build and deleted before build publishes, is not resurrected
+     * */
+    @Test
+    public void buildSkipsUserDeletedDuringBuild() {
+        duringBuild = () -> searchService.onPostDelete(deleteEvent(users.get(0)));
+
+        searchService.buildIndex();
+
+        assertEquals(Collections.emptyList(), searchService.search("smith", 10));
+        assertEquals(Collections.singletonList(3L), searchService.search("an", 10));
+    }
+
+    @Test
+    public void deleteAfterBuildIsNotRemembered() {
+        searchService.buildIndex();
+        searchService.onPostDelete(deleteEvent(users.get(0)));
+
+        // user is read again by next build
+        searchService.buildIndex();
+
+        assertEquals(Collections.singletonList(1L), searchService.search("smith", 10));
+    }
+
+    private static User createUser(Long id, String firstName, String secondName, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setSecondName(secondName);
+        user.setEmail(email);
+        return user;
+    }
+
+    private static PostInsertEvent insertEvent(User user) {
+        PostInsertEvent event = mock(PostInsertEvent.class);
+        when(event.getEntity()).thenReturn(user);
+        return event;
+    }
+
+    private static PostUpdateEvent updateEvent(User user) {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getEntity()).thenReturn(user);
+        return event;
+    }
+
+    private static PostDeleteEvent deleteEvent(User user) {
+        PostDeleteEvent event = mock(PostDeleteEvent.class);
+        when(event.getEntity()).thenReturn(user);
+        return event;
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        List<Long> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        return sorted;
+    }
+}
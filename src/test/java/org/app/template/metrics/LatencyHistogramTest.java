@@ -0,0 +1,88 @@
+package org.app.template.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesHaveExactBuckets() {
+        for (long value = 0; value < 16; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.upperBound(LatencyHistogram.index(value)));
+        }
+    }
+
+    /**
+     * Bucket contains value and is narrower than 1/16 of value
+     * */
+    @Test
+    public void bucketBoundsHaveBoundedRelativeError() {
+        int previousIndex = -1;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 2; value += Math.max(1, value / 7)) {
+            int index = LatencyHistogram.index(value);
+            long upperBound = LatencyHistogram.upperBound(index);
+
+            assertTrue("index must not decrease at " + value, index >= previousIndex);
+            assertTrue("upper bound below value " + value, upperBound >= value);
+            assertTrue("bucket too wide at " + value, upperBound - value <= value / 16);
+            if (index > 0) {
+                assertTrue("previous bucket contains " + value, LatencyHistogram.upperBound(index - 1) < value);
+            }
+            previousIndex = index;
+        }
+    }
+
+    @Test
+    public void largestValueFitsLastBucket() {
+        int index = LatencyHistogram.index(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(index));
+        assertEquals((Long.SIZE - 4) * 16 - 1, index);
+    }
+
+    @Test
+    public void emptyHistogramHasZeroQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void quantilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500500), histogram.getSumNanos());
+        assertQuantile(histogram, 0.5, TimeUnit.MICROSECONDS.toNanos(500));
+        assertQuantile(histogram, 0.99, TimeUnit.MICROSECONDS.toNanos(990));
+        // upper bound of last bucket is capped by max
+        assertEquals(histogram.getMaxNanos(), histogram.getValueAtQuantile(1.0));
+        assertEquals(1.0, histogram.getValueAtQuantile(1.0, TimeUnit.MILLISECONDS), 0.0);
+    }
+
+    @Test
+    public void negativeDurationIsRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getSumNanos());
+        assertEquals(0, histogram.getValueAtQuantile(1.0));
+    }
+
+    private static void assertQuantile(LatencyHistogram histogram, double quantile, long expected) {
+        long value = histogram.getValueAtQuantile(quantile);
+        assertTrue(quantile + " quantile " + value + " is below " + expected, value >= expected);
+        assertTrue(quantile + " quantile " + value + " is far above " + expected, value - expected <= expected / 16);
+    }
+}
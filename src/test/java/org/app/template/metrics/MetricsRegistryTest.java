@@ -0,0 +1,70 @@
+package org.app.template.metrics;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    @Test
+    public void valuesAreReadOnEveryRender() {
+        AtomicLong queued = new AtomicLong();
+        metricsRegistry.gauge("queued", queued::get);
+
+        Metric metric = metricsRegistry.getMetrics().iterator().next();
+        assertEquals(Metric.Type.GAUGE, metric.getType());
+        assertNull(metric.getLabel());
+        assertEquals(0L, metric.getSamples().get(Metric.NO_LABEL));
+
+        queued.set(5);
+        assertEquals(5L, metric.getSamples().get(Metric.NO_LABEL));
+    }
+
+    @Test
+    public void subsystemsAddSamplesToSameMetric() {
+        metricsRegistry.counters("cache_hits_total", "cache", () -> Collections.singletonMap("userDetails", 3L));
+        metricsRegistry.counter("cache_hits_total", "cache", "verifiedCredentials", () -> 7);
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("userDetails", 3L);
+        expected.put("verifiedCredentials", 7L);
+        assertEquals(1, metricsRegistry.getMetrics().size());
+        assertEquals(expected, metricsRegistry.getMetrics().iterator().next().getSamples());
+    }
+
+    @Test
+    public void metricsAreSortedByName() {
+        metricsRegistry.gauge("lane_queued", "lane", "pages", () -> 0);
+        LatencyHistogram histogram = metricsRegistry.summary("lane_queue_wait_seconds", "lane", "pages");
+        metricsRegistry.gauge("lane_active", "lane", "pages", () -> 0);
+
+        Iterator<Metric> metrics = metricsRegistry.getMetrics().iterator();
+        assertEquals("lane_active", metrics.next().getName());
+        Metric summary = metrics.next();
+        assertEquals(Metric.Type.SUMMARY, summary.getType());
+        assertSame(histogram, summary.getSamples().get("pages"));
+        assertEquals("lane_queued", metrics.next().getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metricOfOtherTypeIsRejected() {
+        metricsRegistry.gauge("login_rejected_total", () -> 0);
+        metricsRegistry.counter("login_rejected_total", () -> 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void metricWithOtherLabelIsRejected() {
+        metricsRegistry.counter("login_rejected_total", "reason", "ip", () -> 0);
+        metricsRegistry.counter("login_rejected_total", "lane", "pages", () -> 0);
+    }
+}
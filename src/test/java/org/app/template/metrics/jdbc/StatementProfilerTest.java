@@ -0,0 +1,116 @@
+package org.app.template.metrics.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class StatementProfilerTest {
+
+    private StatementProfiler profiler;
+
+    @Before
+    public void setUp() {
+        profiler = new StatementProfiler();
+        ReflectionTestUtils.setField(profiler, "enabled", true);
+        ReflectionTestUtils.setField(profiler, "slowQueryThreshold", 100L);
+        ReflectionTestUtils.setField(profiler, "repeatedStatementThreshold", 3);
+        ReflectionTestUtils.setField(profiler, "maxStatements", 500);
+    }
+
+    @Test
+    public void literalsAreReplacedWithPlaceholders() {
+        assertEquals("select * from user where email = ? and id = ?",
+                profiler.normalize("select * from user where email = 'o''neil@mailinator.com' and id = 42"));
+        assertEquals("select * from t1 where price > ? and name = ?",
+                profiler.normalize("select * from t1 where price > 10.50 and name = ''"));
+    }
+
+    @Test
+    public void identifiersWithDigitsAreKept() {
+        assertEquals("select t1.col_2 from table_3 t1 where t1.id = ?",
+                profiler.normalize("select t1.col_2 from table_3 t1 where t1.id = 7"));
+    }
+
+    @Test
+    public void inListsAreCollapsed() {
+        assertEquals("select id from user where id in (?)",
+                profiler.normalize("select id from user where id in (1, 2, 3)"));
+        assertEquals("select id from user where id in (?)",
+                profiler.normalize("select id from user where id in (?,?, ? )"));
+        assertEquals("insert into user (id, email) values (?)",
+                profiler.normalize("insert into user (id, email) values (?, ?)"));
+    }
+
+    @Test
+    public void whitespaceIsCollapsed() {
+        assertEquals("select id from user where id = ?",
+                profiler.normalize("  select id\n\tfrom   user\r\n where id = ?  "));
+    }
+
+    @Test
+    public void statementsOfSameShapeShareStats() {
+        StatementStats stats = profiler.getStats("select * from user where id = 1");
+
+        assertSame(stats, profiler.getStats("select * from user where id = 2"));
+        assertNotSame(stats, profiler.getStats("select * from user where email = 'a'"));
+        assertEquals(2, profiler.getStatements().size());
+    }
+
+    @Test
+    public void statementsAboveLimitShareOtherStats() {
+        ReflectionTestUtils.setField(profiler, "maxStatements", 1);
+        profiler.getStats("select * from user where id = 1");
+
+        StatementStats other = profiler.getStats("select * from user where email = 'a'");
+
+        assertSame(other, profiler.getStats("delete from user where id = 1"));
+        assertSame(other, profiler.getStatements().get("other"));
+    }
+
+    @Test
+    public void slowStatementIsCounted() {
+        String sql = "update user set email = 'a' where id = 1";
+        StatementStats stats = profiler.getStats(sql);
+
+        profiler.record(sql, stats, TimeUnit.MILLISECONDS.toNanos(1), 1);
+        profiler.record(sql, stats, TimeUnit.MILLISECONDS.toNanos(150), 2);
+
+        assertEquals(1, profiler.getSlowStatements());
+        assertEquals(2, stats.getLatency().getCount());
+        assertEquals(3, stats.getRows());
+    }
+
+    @Test
+    public void statementRepeatedInRequestIsCounted() {
+        profiler.beginRequest();
+        for (int id = 0; id < 3; id++) {
+            String sql = "select * from user where id = " + id;
+            profiler.record(sql, profiler.getStats(sql), 0, 0);
+        }
+        profiler.endRequest("GET /user/list");
+
+        assertEquals(1, profiler.getRepeatedStatementRequests());
+    }
+
+    @Test
+    public void statementsOutsideRequestAreNotCountedAsRepeated() {
+        for (int id = 0; id < 5; id++) {
+            String sql = "select * from user where id = " + id;
+            profiler.record(sql, profiler.getStats(sql), 0, 0);
+        }
+        profiler.endRequest("GET /user/list");
+
+        profiler.beginRequest();
+        String sql = "select * from user where id = 1";
+        profiler.record(sql, profiler.getStats(sql), 0, 0);
+        profiler.endRequest("GET /user/list");
+
+        assertEquals(0, profiler.getRepeatedStatementRequests());
+    }
+}
@@ -0,0 +1,50 @@
+package org.app.template.metrics.timing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DbTimingSessionEventListenerTest {
+
+    private final DbTimingSessionEventListener listener = new DbTimingSessionEventListener();
+
+    @After
+    public void tearDown() {
+        if (RequestTimeline.current() != null) {
+            RequestTimeline.current().finish();
+        }
+    }
+
+    @Test
+    public void statementsAndBatchesAreRecordedAsDbPhase() {
+        RequestTimeline timeline = RequestTimeline.start();
+
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteStatementStart();
+        listener.jdbcExecuteStatementEnd();
+        listener.jdbcExecuteBatchStart();
+        listener.jdbcExecuteBatchEnd();
+
+        assertTrue(timeline.toServerTiming(), timeline.toServerTiming().startsWith(RequestTimeline.PHASE_DB + ";desc=\"3 calls\";dur="));
+    }
+
+    @Test
+    public void statementStartedWithoutTimelineIsNotRecorded() {
+        listener.jdbcExecuteStatementStart();
+        RequestTimeline timeline = RequestTimeline.start();
+        listener.jdbcExecuteStatementEnd();
+
+        assertTrue(timeline.toServerTiming(), timeline.toServerTiming().startsWith(RequestTimeline.PHASE_TOTAL));
+    }
+
+    @Test
+    public void nothingIsRecordedOutsideRequest() {
+        listener.jdbcExecuteBatchStart();
+        listener.jdbcExecuteBatchEnd();
+
+        assertNull(RequestTimeline.current());
+    }
+}
@@ -1,6 +1,8 @@
 var path = require('path');
 var webpack = require('webpack');
 var ManifestPlugin = require('webpack-manifest-plugin');
+var CompressionPlugin = require('compression-webpack-plugin');
+var BrotliPlugin = require('brotli-webpack-plugin');
 
 var ModuleUtils = require("./webpack/ModuleUtils");
 
@@ -63,6 +65,22 @@ var mainConfig = {
             minChunks: 2
         }),
 
+        /* Pre-compressed variants, served by WebpackBundleResourceResolver according to Accept-Encoding */
+        new CompressionPlugin({
+            asset: '[path].gz[query]',
+            algorithm: 'gzip',
+            test: /\.(js|css|json|svg)$/,
+            threshold: 1024,
+            minRatio: 0.8
+        }),
+
+        new BrotliPlugin({
+            asset: '[path].br[query]',
+            test: /\.(js|css|json|svg)$/,
+            threshold: 1024,
+            minRatio: 0.8
+        }),
+
 
         // new webpack.DefinePlugin({
         //     // A common mistake is not stringifying the "production" string.